@@ -0,0 +1,79 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.benchmark;
+
+import java.io.*;
+import java.nio.file.*;
+
+import jthrice.analyzer.*;
+import jthrice.generator.*;
+import jthrice.launcher.*;
+import jthrice.lexer.*;
+import jthrice.optimizer.*;
+import jthrice.parser.*;
+
+/**
+ * Compares the time it takes to generate each backend's code and to compile
+ * it to an object file with the native compiler, which is where the C backend
+ * pays for parsing and checking the program again.
+ */
+public final class BackendBenchmark {
+  private static final int ITERATIONS = 10;
+
+  public static void main(String[] arguments) throws Exception {
+    if (arguments.length < 1) {
+      System.out.println("Provide a Thrice file!");
+      return;
+    }
+    var iterations = arguments.length < 2 ? ITERATIONS
+      : Integer.parseInt(arguments[1]);
+    var resolution = Resolution.of(arguments[0]);
+    var source     = Source.of(arguments[0]);
+    var root       = Parser.parse(resolution, Lexer.lex(resolution, source));
+    var solution   = Analyzer.analyze(resolution, root);
+    if (solution == null) {
+      System.out.println("Could not analyze the file!");
+      return;
+    }
+    var program = Optimizer.of(Optimizer.DEFAULT, false, null, false)
+      .optimize(resolution, solution);
+
+    var directory = Files.createTempDirectory("jthrice");
+    System.out.printf("%-8s %16s %16s%n", "backend", "generate (ms)",
+      "compile (ms)");
+    for (var backend : Backend.BACKENDS) {
+      var code = directory.resolve("%s.%s".formatted(source.name(),
+        backend == Backend.LLVM ? "ll" : "c"));
+      var generate = 0L;
+      var compile  = 0L;
+      for (var i = 0; i < iterations; i++) {
+        var start  = System.nanoTime();
+        var output = backend.generate(program);
+        generate += System.nanoTime() - start;
+        Files.writeString(code, output);
+        compile += BackendBenchmark.compile(code,
+          directory.resolve("%s.o".formatted(backend)));
+      }
+      System.out.printf("%-8s %16.3f %16.3f%n", backend,
+        generate / 1e6 / iterations, compile / 1e6 / iterations);
+    }
+  }
+
+  private static long compile(Path code, Path object)
+    throws IOException, InterruptedException {
+    var builder = new ProcessBuilder(Generator.COMPILER, "-c", "-O0", "-o",
+      object.toString(), code.toString());
+    builder.redirectErrorStream(true);
+    builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+    var start   = System.nanoTime();
+    var process = builder.start();
+    if (process.waitFor() != 0) {
+      throw new IOException("Could not compile %s!".formatted(code));
+    }
+    return System.nanoTime() - start;
+  }
+
+  private BackendBenchmark() {
+  }
+}
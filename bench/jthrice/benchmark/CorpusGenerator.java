@@ -0,0 +1,289 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.benchmark;
+
+import java.io.*;
+import java.math.*;
+import java.nio.file.*;
+import java.util.*;
+
+import jthrice.analyzer.*;
+import jthrice.launcher.*;
+
+/**
+ * Writes Thrice files of a given shape that compile without errors. The same
+ * seed always gives the same file. Definitions are written one at a time,
+ * and only the values of the last few definitions of each type are kept, so
+ * files of any size take the same memory. The values are folded with the
+ * arithmetic of the analyzer, so no operation overflows or divides by zero.
+ */
+public final class CorpusGenerator {
+  /** Types that the definitions are chosen from. */
+  public static final Scalar[] TYPES = { Scalar.I1, Scalar.I2, Scalar.I4,
+    Scalar.I8, Scalar.IX, Scalar.U1, Scalar.U2, Scalar.U4, Scalar.U8,
+    Scalar.UX, Scalar.F4, Scalar.F8 };
+
+  /** Number of the latest definitions of each type that can be referred. */
+  private static final int WINDOW = 4096;
+
+  /**
+   * Creates a generator whose expressions have at most the given number of
+   * operands in each chain and the given depth of nested groups, and refer to
+   * previous definitions instead of using numbers for the given percent of
+   * the operands.
+   */
+  public static CorpusGenerator of(long seed, int chain, int depth,
+    int references) {
+    var windows = new Window[TYPES.length];
+    for (var i = 0; i < windows.length; i++) {
+      windows[i] = new Window(TYPES[i]);
+    }
+    return new CorpusGenerator(new SplittableRandom(seed), chain, depth,
+      references, windows);
+  }
+
+  public final int chain;
+  public final int depth;
+  public final int references;
+
+  private final SplittableRandom random;
+  private final Window[]         windows;
+  private final StringBuilder    buffer;
+
+  private long definitions;
+
+  private CorpusGenerator(SplittableRandom random, int chain, int depth,
+    int references, Window[] windows) {
+    this.random     = random;
+    this.chain      = chain;
+    this.depth      = depth;
+    this.references = references;
+    this.windows    = windows;
+    buffer          = new StringBuilder();
+  }
+
+  /** Writes the definitions to the Thrice file with the name. */
+  public void write(String name, long count) throws IOException {
+    var path = Path.of(name + '.' + Source.EXTENSION);
+    try (var out = Files.newBufferedWriter(path)) {
+      write(out, count);
+    }
+  }
+
+  public void write(Writer out, long count) throws IOException {
+    for (var i = 0L; i < count; i++) {
+      var window = windows[random.nextInt(windows.length)];
+      buffer.setLength(0);
+      buffer.append('v').append(definitions).append(": ").append(window.type)
+        .append(" = ");
+      var value = expression(window, depth);
+      buffer.append(";\n");
+      out.append(buffer);
+      window.add(definitions++, value);
+    }
+  }
+
+  /** Terms that are added or subtracted. */
+  private BigDecimal expression(Window window, int depth) {
+    var value = term(window, depth);
+    var count = random.nextInt(chain);
+    for (var i = 0; i < count; i++) {
+      var mark    = buffer.length();
+      var add     = random.nextBoolean();
+      buffer.append(add ? " + " : " - ");
+      var operand = term(window, depth);
+      var result  = add ? window.add(value, operand)
+        : window.subtract(value, operand);
+      if (result == null) {
+        buffer.setLength(mark);
+        continue;
+      }
+      value = result;
+    }
+    return value;
+  }
+
+  /** Factors that are multiplied, divided or reminded. */
+  private BigDecimal term(Window window, int depth) {
+    var value = factor(window, depth);
+    var count = random.nextInt(chain);
+    for (var i = 0; i < count; i++) {
+      var mark     = buffer.length();
+      var operator = random.nextInt(3);
+      buffer.append(' ').append("*/%".charAt(operator)).append(' ');
+      var operand = factor(window, depth);
+      var result  = switch (operator) {
+        case 0 -> window.multiply(value, operand);
+        case 1 -> window.divide(value, operand);
+        default -> window.reminder(value, operand);
+      };
+      if (result == null) {
+        buffer.setLength(mark);
+        continue;
+      }
+      value = result;
+    }
+    return value;
+  }
+
+  /**
+   * Number, reference or a run of nested groups and signs around an
+   * expression. A run takes at least half of the remaining depth, so the
+   * recursion stays logarithmic in the depth.
+   */
+  private BigDecimal factor(Window window, int depth) {
+    if (depth > 0 && random.nextInt(chain + 1) == 0) {
+      var run       = depth - random.nextInt(depth / 2 + 1);
+      var negations = 0;
+      var closings  = 0;
+      var grouped   = false;
+      for (var i = 0; i < run; i++) {
+        grouped = false;
+        if (window.signed && random.nextInt(4) == 0) {
+          buffer.append("- ");
+          negations++;
+        } else if (random.nextInt(8) == 0) {
+          buffer.append("+ ");
+        } else {
+          buffer.append('(');
+          closings++;
+          grouped = true;
+        }
+      }
+      // Signs bind tighter than the operators of the expression.
+      if (!grouped) {
+        buffer.append('(');
+        closings++;
+      }
+      var value = expression(window, depth - run);
+      buffer.append(")".repeat(closings));
+      return negations % 2 == 0 ? value : window.negate(value);
+    }
+    if (random.nextInt(100) < references && window.size > 0) {
+      var index = random.nextInt(window.size);
+      buffer.append('v').append(window.names[index]);
+      return window.values[index];
+    }
+    return window.number(buffer, random);
+  }
+
+  /** Latest definitions of a type and the limits of its values. */
+  private static final class Window {
+    /** Bound of floating-point values, which keeps them finite. */
+    private static final BigDecimal LIMIT = BigDecimal.valueOf(1_000_000);
+
+    final Scalar       type;
+    final boolean      floating;
+    final boolean      signed;
+    final long[]       names;
+    final BigDecimal[] values;
+
+    int size;
+    int next;
+
+    Window(Scalar type) {
+      this.type = type;
+      floating  = type instanceof Scalar.Floating;
+      signed    = !(type instanceof Scalar.Unsigned);
+      names     = new long[WINDOW];
+      values    = new BigDecimal[WINDOW];
+    }
+
+    void add(long name, BigDecimal value) {
+      names[next]  = name;
+      values[next] = value;
+      next         = (next + 1) % WINDOW;
+      size         = Math.min(size + 1, WINDOW);
+    }
+
+    /**
+     * Writes a small number that is exactly representable by the type. The
+     * value is read from the written text, like the analyzer reads it.
+     */
+    BigDecimal number(StringBuilder buffer, SplittableRandom random) {
+      String text;
+      if (floating) {
+        var value = (random.nextInt(400) + 1) / 4.0;
+        text = type == Scalar.F4 ? Float.toString((float) value)
+          : Double.toString(value);
+      } else {
+        text = Integer.toString(random.nextInt(100) + 1);
+      }
+      buffer.append(text);
+      return new BigDecimal(text);
+    }
+
+    BigDecimal negate(BigDecimal operand) {
+      return (BigDecimal) Arithmetic.negate(type, operand);
+    }
+
+    BigDecimal add(BigDecimal left, BigDecimal right) {
+      return check(Arithmetic.add(type, left, right));
+    }
+
+    BigDecimal subtract(BigDecimal left, BigDecimal right) {
+      return check(Arithmetic.subtract(type, left, right));
+    }
+
+    BigDecimal multiply(BigDecimal left, BigDecimal right) {
+      return check(Arithmetic.multiply(type, left, right));
+    }
+
+    BigDecimal divide(BigDecimal left, BigDecimal right) {
+      if (right.signum() == 0) {
+        return null;
+      }
+      return check(Arithmetic.divide(type, left, right));
+    }
+
+    BigDecimal reminder(BigDecimal left, BigDecimal right) {
+      if (right.signum() == 0) {
+        return null;
+      }
+      return check(Arithmetic.reminder(type, left, right));
+    }
+
+    /**
+     * Gives the folded value if it fits, or null. Signed values must also
+     * fit when negated, so a negation never overflows.
+     */
+    private BigDecimal check(Object folded) {
+      if (folded == null) {
+        return null;
+      }
+      var value = (BigDecimal) folded;
+      if (floating) {
+        return value.abs().compareTo(LIMIT) > 0 ? null : value;
+      }
+      if (Arithmetic.overflows(type, value)
+        || signed && Arithmetic.overflows(type, value.negate())) {
+        return null;
+      }
+      return value;
+    }
+  }
+
+  /**
+   * Writes a corpus. Arguments are the name of the file without the
+   * extension, the number of definitions, and optionally the seed, chain
+   * length, nesting depth and reference percent.
+   */
+  public static void main(String[] arguments) throws IOException {
+    if (arguments.length < 2) {
+      System.out.println("Provide a file name and a number of definitions!");
+      return;
+    }
+    var count      = Long.parseLong(arguments[1]);
+    var seed       = arguments.length < 3 ? 0 : Long.parseLong(arguments[2]);
+    var chain      = arguments.length < 4 ? 4 : Integer.parseInt(arguments[3]);
+    var depth      = arguments.length < 5 ? 4 : Integer.parseInt(arguments[4]);
+    var references = arguments.length < 6 ? 50
+      : Integer.parseInt(arguments[5]);
+    var generator  = CorpusGenerator.of(seed, chain, depth, references);
+    var start      = System.nanoTime();
+    generator.write(arguments[0], count);
+    System.out.printf("Wrote %d definitions to `%s.%s` in %.3f ms.%n", count,
+      arguments[0], Source.EXTENSION, (System.nanoTime() - start) / 1e6);
+  }
+}
@@ -0,0 +1,63 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.benchmark;
+
+import java.nio.file.*;
+
+import jthrice.launcher.*;
+import jthrice.lexer.*;
+import jthrice.parser.*;
+
+/**
+ * Measures the parser on deeply nested expressions, which used to overflow
+ * the stack when the parser recursed for each operand.
+ */
+public final class ParserBenchmark {
+  private static final int   ITERATIONS = 10;
+  private static final int[] DEPTHS     = { 1_000, 10_000, 50_000 };
+
+  public static void main(String[] arguments) throws Exception {
+    var iterations = arguments.length < 1 ? ITERATIONS
+      : Integer.parseInt(arguments[0]);
+    var directory  = Files.createTempDirectory("jthrice");
+    System.out.printf("%-12s %8s %10s %12s %16s%n", "shape", "depth",
+      "lexemes", "parse (ms)", "lexemes per ms");
+    for (var depth : DEPTHS) {
+      ParserBenchmark.measure(directory, iterations, "groups", depth,
+        "(".repeat(depth) + "1" + ")".repeat(depth));
+      ParserBenchmark.measure(directory, iterations, "negations", depth,
+        "-".repeat(depth) + "1");
+      ParserBenchmark.measure(directory, iterations, "additions", depth,
+        "1 + ".repeat(depth) + "1");
+      ParserBenchmark.measure(directory, iterations, "mixed", depth,
+        "(-1 * ".repeat(depth) + "1" + ")".repeat(depth));
+    }
+  }
+
+  private static void measure(Path directory, int iterations, String shape,
+    int depth, String value) throws Exception {
+    var name = directory.resolve("%s%d".formatted(shape, depth)).toString();
+    Files.writeString(Path.of(name + '.' + Source.EXTENSION),
+      "a: i4 = %s;%n".formatted(value));
+    var source = Source.of(name);
+    var lex    = Lexer.lex(Resolution.of(name), source);
+    var time   = 0L;
+    for (var i = 0; i < iterations; i++) {
+      var resolution = Resolution.of(name);
+      var start      = System.nanoTime();
+      var root       = Parser.parse(resolution, lex);
+      time += System.nanoTime() - start;
+      if (root == null || root.statements.size() != 1) {
+        throw new IllegalStateException(
+          "Could not parse the %s!".formatted(shape));
+      }
+    }
+    var milliseconds = time / 1e6 / iterations;
+    System.out.printf("%-12s %8d %10d %12.3f %16.1f%n", shape, depth,
+      lex.size(), milliseconds, lex.size() / milliseconds);
+  }
+
+  private ParserBenchmark() {
+  }
+}
@@ -0,0 +1,170 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.benchmark;
+
+import java.io.*;
+import java.lang.management.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import jthrice.generator.*;
+import jthrice.launcher.*;
+
+/**
+ * Measures how the throughput of the launcher grows with the number of
+ * threads, for many small files and for a few huge ones. Every file goes
+ * through the whole pipeline, but the generated code is only written, so the
+ * native compiler does not hide the time of the Java phases. Printing is sent
+ * to a null stream that is still locked like the console, so contention on
+ * the shared output shows up as a flat speedup curve.
+ */
+public final class ScalabilityBenchmark {
+  private static final int REPEATS = 5;
+
+  public static void main(String[] arguments) throws Exception {
+    var csv     = arguments.length < 1 ? "scalability.csv" : arguments[0];
+    var repeats = arguments.length < 2 ? REPEATS
+      : Integer.parseInt(arguments[1]);
+    var scale   = arguments.length < 3 ? 1 : Integer.parseInt(arguments[2]);
+
+    var directory = Files.createTempDirectory("jthrice");
+    var workloads = List.of(
+      Workload.of(directory, "small", 2000 * scale, 50),
+      Workload.of(directory, "huge", 4, 20000 * scale));
+    var threads   = ScalabilityBenchmark.threads();
+    var options   = Options.of(new String[] { "--emit-only" });
+    var console   = System.out;
+
+    try (var out = new PrintStream(Files.newOutputStream(Path.of(csv)))) {
+      out.println("workload,threads,files,bytes,seconds,files_per_second,"
+        + "megabytes_per_second,speedup,efficiency,gc_percent");
+      console.printf("%-8s %8s %12s %10s %10s %10s %8s%n", "workload",
+        "threads", "files/s", "MB/s", "speedup", "efficiency", "gc %");
+      for (var workload : workloads) {
+        var base = 0.0;
+        for (var count : threads) {
+          var result = ScalabilityBenchmark.measure(options, workload, count,
+            repeats, console);
+          if (count == 1) {
+            base = result.seconds;
+          }
+          var speedup    = base / result.seconds;
+          var efficiency = speedup / count;
+          var files      = workload.names.size() / result.seconds;
+          var megabytes  = workload.bytes / 1e6 / result.seconds;
+          console.printf("%-8s %8d %12.1f %10.2f %10.2f %10.2f %8.1f%n",
+            workload.name, count, files, megabytes, speedup, efficiency,
+            result.gc);
+          out.printf(Locale.ROOT, "%s,%d,%d,%d,%.6f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+            workload.name, count, workload.names.size(), workload.bytes,
+            result.seconds, files, megabytes, speedup, efficiency, result.gc);
+        }
+      }
+    }
+    console.printf("Wrote the results to `%s`.%n", csv);
+  }
+
+  /** Powers of two up to the number of processors, and the number itself. */
+  private static List<Integer> threads() {
+    var processors = Runtime.getRuntime().availableProcessors();
+    var threads    = new ArrayList<Integer>();
+    for (var count = 1; count < processors; count *= 2) {
+      threads.add(count);
+    }
+    threads.add(processors);
+    return threads;
+  }
+
+  /**
+   * Compiles all the files of the workload once to warm up, and then gives
+   * the median of the repeats.
+   */
+  private static Result measure(Options options, Workload workload,
+    int threads, int repeats, PrintStream console) throws Exception {
+    var results = new ArrayList<Result>();
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    try {
+      ScalabilityBenchmark.run(options, workload, threads);
+      for (var i = 0; i < repeats; i++) {
+        results.add(ScalabilityBenchmark.run(options, workload, threads));
+      }
+    } finally {
+      System.setOut(console);
+    }
+    results.sort(Comparator.comparingDouble(result -> result.seconds));
+    return results.get(results.size() / 2);
+  }
+
+  private static Result run(Options options, Workload workload, int threads)
+    throws Exception {
+    var pool  = Executors.newFixedThreadPool(threads);
+    var gc    = ScalabilityBenchmark.gc();
+    var start = System.nanoTime();
+    try (var builder = Builder.of(1, Profile.DEBUG, true, false, null)) {
+      var futures = new ArrayList<Future<?>>();
+      for (var name : workload.names) {
+        futures.add(pool.submit(
+          () -> Launcher.process(options, builder, name)));
+      }
+      for (var future : futures) {
+        future.get();
+      }
+    } finally {
+      pool.shutdown();
+    }
+    var time = System.nanoTime() - start;
+    return new Result(time / 1e9,
+      (ScalabilityBenchmark.gc() - gc) * 1e6 / time * 100);
+  }
+
+  /** Milliseconds that all the collectors took since the start. */
+  private static long gc() {
+    var total = 0L;
+    for (var collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      total += Math.max(collector.getCollectionTime(), 0);
+    }
+    return total;
+  }
+
+  /** Files that are compiled together. */
+  private static final class Workload {
+    static Workload of(Path directory, String name, int files,
+      int definitions) throws IOException {
+      var names = new ArrayList<String>();
+      var bytes = 0L;
+      for (var i = 0; i < files; i++) {
+        var file = directory.resolve("%s%d".formatted(name, i)).toString();
+        CorpusGenerator.of(i, 4, 4, 50).write(file, definitions);
+        names.add(file);
+        bytes += Files.size(Path.of(file + '.' + Source.EXTENSION));
+      }
+      return new Workload(name, names, bytes);
+    }
+
+    final String       name;
+    final List<String> names;
+    final long         bytes;
+
+    private Workload(String name, List<String> names, long bytes) {
+      this.name  = name;
+      this.names = names;
+      this.bytes = bytes;
+    }
+  }
+
+  /** Wall time of a run and the percent of it that was spent collecting. */
+  private static final class Result {
+    final double seconds;
+    final double gc;
+
+    Result(double seconds, double gc) {
+      this.seconds = seconds;
+      this.gc      = gc;
+    }
+  }
+
+  private ScalabilityBenchmark() {
+  }
+}
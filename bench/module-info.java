@@ -0,0 +1,8 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+/** Benchmarks of the Thrice Java compiler. */
+module jthrice.benchmark {
+  requires java.management;
+  requires jthrice.compiler;
+}
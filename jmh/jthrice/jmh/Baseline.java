@@ -0,0 +1,25 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.jmh;
+
+import org.openjdk.jmh.profile.*;
+import org.openjdk.jmh.results.format.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Runs all the phases with the GC profiler, same as `-prof gc`, and writes
+ * the results to the given file, which is `baseline.json` by default.
+ */
+public final class Baseline {
+  public static void main(String[] arguments) throws RunnerException {
+    var options = new OptionsBuilder().include(Phases.class.getName())
+      .addProfiler(GCProfiler.class).resultFormat(ResultFormatType.JSON)
+      .result(arguments.length < 1 ? "baseline.json" : arguments[0]).build();
+    new Runner(options).run();
+  }
+
+  private Baseline() {
+  }
+}
@@ -0,0 +1,66 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.jmh;
+
+import java.nio.file.*;
+import java.util.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import jthrice.analyzer.*;
+import jthrice.benchmark.*;
+import jthrice.launcher.*;
+import jthrice.lexer.*;
+import jthrice.optimizer.*;
+import jthrice.parser.*;
+
+/**
+ * Thrice file of a size that is written once per trial, with the output of
+ * every phase computed ahead so each benchmark measures only its own phase.
+ * Prints the bytes, tokens and definitions of the file, which is what one
+ * operation of a benchmark handles.
+ */
+@State(Scope.Benchmark)
+public class Corpus {
+  /** Number of definitions in each of the sizes. */
+  private static final Map<String, Integer> DEFINITIONS = Map.of("small", 10,
+    "medium", 1_000, "huge", 10_000);
+
+  @Param({ "small", "medium", "huge" })
+  public String size;
+
+  String       name;
+  Source       source;
+  List<Lexeme> lex;
+  Root         root;
+  Solution     solution;
+  Program      program;
+  long         bytes;
+  int          definitions;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    var directory = Files.createTempDirectory("jthrice");
+    name = directory.resolve(size).toString();
+    CorpusGenerator.of(0, 4, 4, 50).write(name, DEFINITIONS.get(size));
+    bytes       = Files.size(Path.of(name + '.' + Source.EXTENSION));
+    definitions = DEFINITIONS.get(size);
+    source      = Source.of(name);
+    lex         = Lexer.lex(resolution(), source);
+    root        = Parser.parse(resolution(), lex);
+    solution    = Analyzer.analyze(resolution(), root);
+    if (solution == null) {
+      throw new IllegalStateException("Corpus `%s` does not compile!"
+        .formatted(size));
+    }
+    program = Optimizer.of(Optimizer.DEFAULT, false, null, false)
+      .optimize(resolution(), solution);
+    System.out.printf("%nCorpus `%s`: %d bytes, %d tokens, %d definitions%n",
+      size, bytes, lex.size(), definitions);
+  }
+
+  Resolution resolution() {
+    return Resolution.of(name);
+  }
+}
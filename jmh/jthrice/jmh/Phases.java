@@ -0,0 +1,60 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.jmh;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import jthrice.analyzer.*;
+import jthrice.generator.*;
+import jthrice.lexer.*;
+import jthrice.optimizer.*;
+import jthrice.parser.*;
+
+/** Each phase of the compiler on its own, from the previous phase's output. */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class Phases {
+  @Benchmark
+  public List<Lexeme> lex(Corpus corpus, Units units) {
+    units.count(corpus);
+    return Lexer.lex(corpus.resolution(), corpus.source);
+  }
+
+  @Benchmark
+  public Root parse(Corpus corpus, Units units) {
+    units.count(corpus);
+    return Parser.parse(corpus.resolution(), corpus.lex);
+  }
+
+  @Benchmark
+  public Solution analyze(Corpus corpus, Units units) {
+    units.count(corpus);
+    return Analyzer.analyze(corpus.resolution(), corpus.root);
+  }
+
+  @Benchmark
+  public Program optimize(Corpus corpus, Units units) {
+    units.count(corpus);
+    return Optimizer.of(Optimizer.DEFAULT, false, null, false)
+      .optimize(corpus.resolution(), corpus.solution);
+  }
+
+  @Benchmark
+  public String generateC(Corpus corpus, Units units) {
+    units.count(corpus);
+    return Backend.C.generate(corpus.program);
+  }
+
+  @Benchmark
+  public String generateLLVM(Corpus corpus, Units units) {
+    units.count(corpus);
+    return Backend.LLVM.generate(corpus.program);
+  }
+}
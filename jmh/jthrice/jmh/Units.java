@@ -0,0 +1,33 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.jmh;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Amount of input handled, which JMH reports as a rate next to the
+ * operations. Each operation handles the whole corpus, so dividing
+ * `gc.alloc.rate.norm` by the bytes, tokens or definitions that `Corpus`
+ * prints at setup gives the allocation per byte, token or definition.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Units {
+  public long bytes;
+  public long tokens;
+  public long definitions;
+
+  @Setup(Level.Iteration)
+  public void clear() {
+    bytes       = 0;
+    tokens      = 0;
+    definitions = 0;
+  }
+
+  void count(Corpus corpus) {
+    bytes       += corpus.bytes;
+    tokens      += corpus.lex.size();
+    definitions += corpus.definitions;
+  }
+}
@@ -1,14 +1,15 @@
 package jthrice.analyzer;
 
 public final class Access extends Evaluation {
-  static Access of(Evaluation accessed) {
-    return new Access(accessed.type, accessed);
+  static Access of(Symbol accessed) {
+    return new Access(accessed.evaluation.type, accessed.evaluation.value,
+      accessed);
   }
 
-  public final Evaluation accessed;
+  public final Symbol accessed;
 
-  private Access(Type type, Evaluation accessed) {
-    super(type);
+  private Access(Type type, Object value, Symbol accessed) {
+    super(type, value);
     this.accessed = accessed;
   }
 }
@@ -2,14 +2,15 @@ package jthrice.analyzer;
 
 public final class Add extends Evaluation {
   static Add of(Evaluation left, Evaluation right) {
-    return new Add(left.type, left, right);
+    return new Add(left.type,
+      Arithmetic.add(left.type, left.value, right.value), left, right);
   }
 
   public final Evaluation left;
   public final Evaluation right;
 
-  private Add(Type type, Evaluation left, Evaluation right) {
-    super(type);
+  private Add(Type type, Object value, Evaluation left, Evaluation right) {
+    super(type, value);
     this.left  = left;
     this.right = right;
   }
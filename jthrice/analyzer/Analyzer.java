@@ -3,30 +3,23 @@
 
 package jthrice.analyzer;
 
-import java.util.*;
-
 import jthrice.launcher.*;
 import jthrice.parser.*;
 
 public final class Analyzer {
+  /** Analyzes the root once with a database that is not kept. */
   public static Solution analyze(Resolution resolution, Root root) {
-    var halfSolution = HalfSolution.of();
-    addBuiltIn(halfSolution);
+    return Analyzer.analyze(resolution, root, Interner.NONE);
+  }
 
-    FirstPass.resolve(resolution, halfSolution, root);
-    SecondPass.resolve(resolution, halfSolution, root);
-    ThirdPass.resolve(resolution, halfSolution, root);
-    FourthPass.resolve(resolution, halfSolution, root);
-    if (!halfSolution.unresolved.isEmpty()) {
-      resolution.error("ANALYZER", "There were unresolved symbols!");
-      return null;
-    }
-    return Solution.of(halfSolution.resolved);
+  /** Analyzes the root with the evaluations made by the interner. */
+  public static Solution analyze(Resolution resolution, Root root,
+    Interner interner) {
+    var database = Database.of(resolution.name(), interner);
+    database.define(root);
+    return database.solve(resolution);
   }
 
-  private static void addBuiltIn(HalfSolution solution) {
-    for (var symbol : Symbol.BUILT_IN) {
-      solution.resolved.put(symbol.name, symbol);
-    }
+  private Analyzer() {
   }
 }
@@ -0,0 +1,87 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.analyzer;
+
+import java.math.*;
+import java.util.function.*;
+
+/** Folds the operations on known values with the semantics of the type. */
+public final class Arithmetic {
+  public static Object negate(Type type, Object operand) {
+    if (operand == null) {
+      return null;
+    }
+    return Arithmetic.round(type, ((BigDecimal) operand).negate());
+  }
+
+  public static Object add(Type type, Object left, Object right) {
+    return Arithmetic.fold(type, left, right, BigDecimal::add);
+  }
+
+  public static Object subtract(Type type, Object left, Object right) {
+    return Arithmetic.fold(type, left, right, BigDecimal::subtract);
+  }
+
+  public static Object multiply(Type type, Object left, Object right) {
+    return Arithmetic.fold(type, left, right, BigDecimal::multiply);
+  }
+
+  public static Object divide(Type type, Object left, Object right) {
+    if (Arithmetic.zero(right)) {
+      return null;
+    }
+    return Arithmetic.fold(type, left, right, switch (type) {
+      case Scalar.Signed signed -> BigDecimal::divideToIntegralValue;
+      case Scalar.Unsigned unsigned -> BigDecimal::divideToIntegralValue;
+      case Scalar.Rinf rinf -> (BiFunction<BigDecimal, BigDecimal, BigDecimal>)
+        (dividend, divisor) -> dividend.divide(divisor, MathContext.DECIMAL128);
+      default -> (BiFunction<BigDecimal, BigDecimal, BigDecimal>)
+        (dividend, divisor) -> dividend.divide(divisor, MathContext.DECIMAL64);
+    });
+  }
+
+  public static Object reminder(Type type, Object left, Object right) {
+    if (Arithmetic.zero(right)) {
+      return null;
+    }
+    return Arithmetic.fold(type, left, right, BigDecimal::remainder);
+  }
+
+  /** Whether the value is an integer that does not fit to the type. */
+  public static boolean overflows(Type type, Object value) {
+    return switch (type) {
+      case Scalar.Signed signed -> !signed.holds((BigDecimal) value);
+      case Scalar.Unsigned unsigned -> !unsigned.holds((BigDecimal) value);
+      default -> false;
+    };
+  }
+
+  private static Object fold(Type type, Object left, Object right,
+    BiFunction<BigDecimal, BigDecimal, BigDecimal> operation) {
+    if (left == null || right == null) {
+      return null;
+    }
+    return Arithmetic.round(type,
+      operation.apply((BigDecimal) left, (BigDecimal) right));
+  }
+
+  private static BigDecimal round(Type type, BigDecimal value) {
+    return switch (type) {
+      case Scalar.F4 f4 -> Float.isFinite(value.floatValue())
+        ? new BigDecimal(Float.toString(value.floatValue()))
+        : null;
+      case Scalar.F8 f8 -> Double.isFinite(value.doubleValue())
+        ? new BigDecimal(Double.toString(value.doubleValue()))
+        : null;
+      default -> value;
+    };
+  }
+
+  private static boolean zero(Object value) {
+    return value != null && ((BigDecimal) value).signum() == 0;
+  }
+
+  private Arithmetic() {
+  }
+}
@@ -0,0 +1,377 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.analyzer;
+
+import java.util.*;
+import java.util.function.*;
+
+import jthrice.launcher.*;
+import jthrice.lexer.*;
+import jthrice.parser.*;
+
+/**
+ * Analysis as memoized queries, which are only computed when they are asked.
+ * The type and the symbol of a definition are separate queries, and a query
+ * records the inputs and the queries it reads. Defining again only marks the
+ * inputs that are different; a query is computed again if something it read
+ * changed, and if it finds an equal value its readers stay valid. Not safe
+ * to use from more than one thread.
+ */
+public final class Database extends Table {
+  private static final Map<String, Symbol> BUILT_IN = Database.builtIn();
+
+  private static Map<String, Symbol> builtIn() {
+    var builtIn = new LinkedHashMap<String, Symbol>();
+    for (var symbol : Symbol.BUILT_IN) {
+      builtIn.put(symbol.name, symbol);
+    }
+    return Collections.unmodifiableMap(builtIn);
+  }
+
+  public static Database of(String name) {
+    return Database.of(name, Interner.NONE);
+  }
+
+  public static Database of(String name, Interner interner) {
+    return Database.of(name, interner, null);
+  }
+
+  /**
+   * Creates a database whose definitions can also access the imported
+   * symbols that they do not define. Imports are not inputs, so they must
+   * not change after a query reads them.
+   */
+  static Database of(String name, Interner interner,
+    Map<String, Symbol> imports) {
+    return new Database(name, interner, imports, Memo.ofInput(List.of()),
+      new HashMap<>(), new ArrayDeque<>());
+  }
+
+  /** Name of the analyzed file, which is given to the messages. */
+  private final String              name;
+  /** Symbols of the other files, or null if there are none. */
+  private final Map<String, Symbol> imports;
+  /** Names of the definitions in the order they are first defined. */
+  private final Memo                names;
+  /** Position of each name in the order of the definitions. */
+  private final Memo                positions;
+  private final Map<String, Entry>  entries;
+  /** Queries that are being computed, the innermost first. */
+  private final Deque<Memo>         active;
+  private long                      revision;
+  private int                       computed;
+
+  private Database(String name, Interner interner,
+    Map<String, Symbol> imports, Memo names, Map<String, Entry> entries,
+    Deque<Memo> active) {
+    super(interner);
+    this.name      = name;
+    this.imports   = imports;
+    this.names     = names;
+    this.positions = Memo.ofQuery(resolution -> findPositions());
+    this.entries   = entries;
+    this.active    = active;
+  }
+
+  /**
+   * Replaces the definitions with the ones of the root. Definitions are
+   * compared by identity, so the ones that were not parsed again keep the
+   * queries that read them valid.
+   */
+  public void define(Root root) {
+    revision++;
+    var found = new LinkedHashMap<String, List<Definition>>();
+    for (var statement : root.statements) {
+      switch (statement) {
+        case Definition definition -> found.computeIfAbsent(
+          definition.name.toString(), key -> new ArrayList<>()).add(definition);
+      }
+    }
+    set(names, List.copyOf(found.keySet()), Objects::equals);
+    for (var entry : entries.values()) {
+      if (!found.containsKey(entry.name)) {
+        set(entry.definitions, List.of(), Database::same);
+      }
+    }
+    for (var definitions : found.entrySet()) {
+      set(entry(definitions.getKey()).definitions, definitions.getValue(),
+        Database::same);
+    }
+  }
+
+  /** Type of the symbol with the name, or null if it is not valid. */
+  public Type type(String name) {
+    var builtIn = BUILT_IN.get(name);
+    if (builtIn != null) {
+      return builtIn.evaluation.type;
+    }
+    return (Type) fetch(entry(name).type);
+  }
+
+  /** Symbol with the name, or null if it is not valid. */
+  public Symbol symbol(String name) {
+    var builtIn = BUILT_IN.get(name);
+    if (builtIn != null) {
+      return builtIn;
+    }
+    return (Symbol) fetch(entry(name).symbol);
+  }
+
+  /** Number of queries that were computed since the database was made. */
+  public int computed() {
+    return computed;
+  }
+
+  /**
+   * Finds the symbols of all the definitions, and logs the messages of their
+   * queries in the order of the definitions. Gives null if there were
+   * unresolved symbols.
+   */
+  @SuppressWarnings("unchecked")
+  public Solution solve(Resolution resolution) {
+    var event = PhaseEvent.begin(resolution);
+    var names = (List<String>) fetch(this.names);
+    // Clashes are cheap to find, so they are not remembered.
+    for (var name : names) {
+      clashes(resolution, name);
+    }
+    var symbols    = new LinkedHashMap<String, Symbol>(BUILT_IN);
+    var unresolved = false;
+    for (var name : names) {
+      if (BUILT_IN.containsKey(name)) {
+        continue;
+      }
+      var entry  = entry(name);
+      var symbol = (Symbol) fetch(entry.symbol);
+      Database.replay(resolution, entry.type);
+      Database.replay(resolution, entry.symbol);
+      if (symbol == null) {
+        unresolved = true;
+      } else {
+        symbols.put(name, symbol);
+      }
+    }
+    event.end("queries", 0, 0, symbols.size());
+    if (unresolved) {
+      resolution.error("ANALYZER", "There were unresolved symbols!");
+      return null;
+    }
+    Metrics.ANALYZED.add(symbols.size() - Symbol.BUILT_IN.length);
+    return Solution.of(symbols);
+  }
+
+  @Override
+  Symbol access(String name, String accessor) {
+    var builtIn = BUILT_IN.get(name);
+    if (builtIn != null) {
+      return builtIn;
+    }
+    if (imports != null && definitions(name).isEmpty()) {
+      return imports.get(name);
+    }
+    var entry  = entry(name);
+    var before = (Boolean) fetch(entry(accessor).orders.computeIfAbsent(name,
+      key -> Memo.ofQuery(resolution -> findOrder(name, accessor))));
+    return before ? (Symbol) fetch(entry.symbol) : null;
+  }
+
+  @Override
+  Identifier declaration(String name) {
+    if (BUILT_IN.containsKey(name)) {
+      return null;
+    }
+    var definitions = definitions(name);
+    return definitions.isEmpty() ? null : definitions.get(0).name;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Definition> definitions(String name) {
+    return (List<Definition>) fetch(entry(name).definitions);
+  }
+
+  private Entry entry(String name) {
+    var entry = entries.get(name);
+    if (entry == null) {
+      entry = Entry.of(this, name);
+      entries.put(name, entry);
+    }
+    return entry;
+  }
+
+  private void clashes(Resolution resolution, String name) {
+    var definitions = definitions(name);
+    var builtIn     = BUILT_IN.get(name);
+    for (var i = 0; i < definitions.size(); i++) {
+      var definition = definitions.get(i);
+      if (builtIn != null) {
+        resolution.error("ANALYZER", definition.name.portion,
+          "Name clashes with the built-in symbol `%s`!"
+            .formatted(builtIn.name));
+      } else if (i != 0) {
+        var previous = definitions.get(0).name;
+        resolution.error("ANALYZER", definition.name.portion,
+          "Name clashes with the previously defined symbol `%s`!"
+            .formatted(previous));
+        resolution.info("ANALYZER", previous.portion,
+          "Previous decleration was here.");
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, java.lang.Integer> findPositions() {
+    var names     = (List<String>) fetch(this.names);
+    var positions = new HashMap<String, java.lang.Integer>();
+    for (var i = 0; i < names.size(); i++) {
+      positions.put(names.get(i), i);
+    }
+    return positions;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Boolean findOrder(String name, String accessor) {
+    var positions = (Map<String, java.lang.Integer>) fetch(
+      this.positions);
+    var first     = positions.get(name);
+    var second    = positions.get(accessor);
+    return first != null && second != null && first < second;
+  }
+
+  private Type findType(Resolution resolution, String name) {
+    var definitions = definitions(name);
+    if (definitions.isEmpty()) {
+      return null;
+    }
+    return Resolver.type(this, resolution, definitions.get(0));
+  }
+
+  private Symbol findSymbol(Resolution resolution, String name) {
+    var definitions = definitions(name);
+    if (definitions.isEmpty()) {
+      return null;
+    }
+    var type = (Type) fetch(entry(name).type);
+    if (type == null) {
+      return null;
+    }
+    return Resolver.symbol(this, resolution, definitions.get(0), type);
+  }
+
+  /** Value of the memo, which is read by the query that is computed. */
+  private Object fetch(Memo memo) {
+    var reader = active.peek();
+    if (reader != null) {
+      reader.dependencies.add(memo);
+    }
+    update(memo);
+    return memo.value;
+  }
+
+  /** Makes the value of the memo valid at the current revision. */
+  private void update(Memo memo) {
+    if (memo.query == null || memo.verified == revision) {
+      return;
+    }
+    if (memo.computing) {
+      throw new IllegalStateException("Query depends on itself!");
+    }
+    if (memo.changed < 0 || changed(memo)) {
+      compute(memo);
+    }
+    memo.verified = revision;
+  }
+
+  /** Whether any of the memos the query read changed after it was valid. */
+  private boolean changed(Memo memo) {
+    for (var dependency : memo.dependencies) {
+      update(dependency);
+      if (dependency.changed > memo.verified) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void compute(Memo memo) {
+    var diagnostics = new ArrayList<Diagnostic>();
+    // Not valid until it completes, in case the query throws.
+    memo.verified     = -1;
+    memo.dependencies = new ArrayList<>();
+    memo.computing    = true;
+    active.push(memo);
+    Object value;
+    try {
+      value = memo.query.apply(Resolution.of(name, diagnostics));
+    } finally {
+      active.pop();
+      memo.computing = false;
+    }
+    // Readers only see the value, so an equal one keeps them valid.
+    if (memo.changed < 0 || !Objects.equals(value, memo.value)) {
+      memo.changed = revision;
+    }
+    memo.value       = value;
+    memo.diagnostics = diagnostics;
+    computed++;
+  }
+
+  private <T> void set(Memo memo, T value, BiPredicate<T, T> same) {
+    @SuppressWarnings("unchecked")
+    var previous = (T) memo.value;
+    if (!same.test(previous, value)) {
+      memo.value   = value;
+      memo.changed = revision;
+    }
+  }
+
+  /** Whether the lists have the same definitions in the same order. */
+  private static boolean same(List<Definition> first,
+    List<Definition> second) {
+    if (first.size() != second.size()) {
+      return false;
+    }
+    for (var i = 0; i < first.size(); i++) {
+      if (first.get(i) != second.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void replay(Resolution resolution, Memo memo) {
+    if (memo == null) {
+      return;
+    }
+    for (var diagnostic : memo.diagnostics) {
+      resolution.log(diagnostic);
+    }
+  }
+
+  /** Input and queries of a name, which are made when it is first used. */
+  private static final class Entry {
+    static Entry of(Database database, String name) {
+      return new Entry(name, Memo.ofInput(List.of()),
+        Memo.ofQuery(resolution -> database.findType(resolution, name)),
+        Memo.ofQuery(resolution -> database.findSymbol(resolution, name)),
+        new HashMap<>());
+    }
+
+    final String            name;
+    /** Definitions with the name, which are the input. */
+    final Memo              definitions;
+    final Memo              type;
+    final Memo              symbol;
+    /** Whether each name is defined before this one, by the name. */
+    final Map<String, Memo> orders;
+
+    private Entry(String name, Memo definitions, Memo type, Memo symbol,
+      Map<String, Memo> orders) {
+      this.name        = name;
+      this.definitions = definitions;
+      this.type        = type;
+      this.symbol      = symbol;
+      this.orders      = orders;
+    }
+  }
+}
@@ -2,14 +2,15 @@ package jthrice.analyzer;
 
 public final class Divide extends Evaluation {
   static Divide of(Evaluation left, Evaluation right) {
-    return new Divide(left.type, left, right);
+    return new Divide(left.type,
+      Arithmetic.divide(left.type, left.value, right.value), left, right);
   }
 
   public final Evaluation left;
   public final Evaluation right;
 
-  private Divide(Type type, Evaluation left, Evaluation right) {
-    super(type);
+  private Divide(Type type, Object value, Evaluation left, Evaluation right) {
+    super(type, value);
     this.left  = left;
     this.right = right;
   }
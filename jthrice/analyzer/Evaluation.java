@@ -4,9 +4,15 @@
 package jthrice.analyzer;
 
 public sealed abstract class Evaluation permits Literal, Access, Group, Posate, Negate, Multiply, Divide, Reminder, Add, Subtract {
-  public final Type type;
+  public final Type   type;
+  public final Object value;
 
-  protected Evaluation(Type type) {
-    this.type = type;
+  protected Evaluation(Type type, Object value) {
+    this.type  = type;
+    this.value = value;
+  }
+
+  public boolean known() {
+    return value != null;
   }
 }
@@ -0,0 +1,182 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.analyzer;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import jthrice.launcher.*;
+import jthrice.parser.*;
+
+/**
+ * Definitions of the files of a module, which every file of it can access.
+ * A name belongs to the first file that defines it. Symbols are added as the
+ * files are analyzed, which can be at the same time; a file must be analyzed
+ * after the files it depends on. A file that did not change can be given as
+ * its summary, which is loaded instead of analyzing it.
+ */
+public final class Exports {
+  public static Exports of() {
+    return new Exports(new HashMap<>(), new HashMap<>(),
+      new ConcurrentHashMap<>(), new HashMap<>(), new ConcurrentHashMap<>());
+  }
+
+  /** Names that the root accesses without defining them. */
+  private static Set<String> accessed(Root root) {
+    var defined = new HashSet<String>();
+    for (var statement : root.statements) {
+      switch (statement) {
+        case Definition definition -> defined.add(definition.name.toString());
+      }
+    }
+    var accessed = new LinkedHashSet<String>();
+    for (var statement : root.statements) {
+      switch (statement) {
+        case Definition definition -> {
+          var tree  = definition.tree;
+          var stack = new ArrayDeque<java.lang.Integer>();
+          stack.push(definition.type);
+          stack.push(definition.value);
+          while (!stack.isEmpty()) {
+            var node = stack.pop();
+            if (tree.operator(node) == Operator.IDENTIFIER) {
+              var name = tree.toString(node);
+              if (!defined.contains(name)) {
+                accessed.add(name);
+              }
+            }
+            for (var i = 0; i < tree.operands(node); i++) {
+              stack.push(tree.operand(node, i));
+            }
+          }
+        }
+      }
+    }
+    return accessed;
+  }
+
+  /** File that defines each name first. */
+  private final Map<String, String>              owners;
+  /** Names that each file accesses without defining them, by its name. */
+  private final Map<String, Set<String>>         accessed;
+  /** Imported names of each file with their owners, when they are found. */
+  private final Map<String, Map<String, String>> imports;
+  /** Summaries of the files that are not analyzed again. */
+  private final Map<String, Solution>            summaries;
+  /** Symbols of the files that were analyzed, by their names. */
+  private final Map<String, Symbol>              symbols;
+
+  private Exports(Map<String, String> owners,
+    Map<String, Set<String>> accessed,
+    Map<String, Map<String, String>> imports, Map<String, Solution> summaries,
+    Map<String, Symbol> symbols) {
+    this.owners    = owners;
+    this.accessed  = accessed;
+    this.imports   = imports;
+    this.summaries = summaries;
+    this.symbols   = symbols;
+  }
+
+  /**
+   * Adds the definitions of the parsed file. Files must be defined in order
+   * and before they are analyzed.
+   */
+  public void define(String file, Root root) {
+    for (var statement : root.statements) {
+      switch (statement) {
+        case Definition definition -> owners.putIfAbsent(
+          definition.name.toString(), file);
+      }
+    }
+    accessed.put(file, Exports.accessed(root));
+  }
+
+  /**
+   * Adds the definitions of a file that is not parsed again from its
+   * summary, with the names it accessed without defining them.
+   */
+  public void define(String file, Solution summary, Set<String> accessed) {
+    for (var name : summary.symbols.keySet()) {
+      owners.putIfAbsent(name, file);
+    }
+    this.accessed.put(file, accessed);
+    summaries.put(file, summary);
+  }
+
+  /** Names that the file imports from the other files, with their owners. */
+  public Map<String, String> imports(String file) {
+    return imports.computeIfAbsent(file, key -> {
+      var found = new TreeMap<String, String>();
+      for (var name : accessed.get(file)) {
+        var owner = owners.get(name);
+        if (owner != null && !owner.equals(file)) {
+          found.put(name, owner);
+        }
+      }
+      return found;
+    });
+  }
+
+  /** Names that the file accessed without defining them. */
+  public Set<String> accessed(String file) {
+    return accessed.get(file);
+  }
+
+  /** Files that the file accesses, which are not analyzed with it. */
+  public Set<String> dependencies(String file) {
+    return new TreeSet<>(imports(file).values());
+  }
+
+  /** Whether the file of the summary owns all the names it defines. */
+  public boolean owns(String file) {
+    for (var name : summaries.get(file).symbols.keySet()) {
+      if (!file.equals(owners.get(name))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Adds the symbols of the summary of the file, instead of analyzing it. */
+  public void load(String file) {
+    symbols.putAll(summaries.get(file).symbols);
+  }
+
+  /**
+   * Analyzes the root of the file with the symbols of the other files, and
+   * adds its symbols to them. Gives null if there were unresolved symbols
+   * or names that clash with the ones of the other files; the definitions
+   * are still analyzed for their messages.
+   */
+  public Solution analyze(Resolution resolution, Root root,
+    Interner interner) {
+    var file    = resolution.name();
+    var clashes = false;
+    for (var statement : root.statements) {
+      switch (statement) {
+        case Definition definition -> {
+          var owner = owners.get(definition.name.toString());
+          if (!owner.equals(file)) {
+            resolution.error("ANALYZER", definition.name.portion,
+              "Name clashes with the symbol `%s` of `%s`!"
+                .formatted(definition.name, owner));
+            clashes = true;
+          }
+        }
+      }
+    }
+    var database = Database.of(file, interner, symbols);
+    database.define(root);
+    var solution = database.solve(resolution);
+    if (solution == null || clashes) {
+      return null;
+    }
+    for (var symbol : solution.symbols.values()) {
+      if (symbol instanceof Variable) {
+        symbols.put(symbol.name, symbol);
+      }
+    }
+    return solution;
+  }
+}
@@ -2,13 +2,13 @@ package jthrice.analyzer;
 
 public final class Group extends Evaluation {
   static Group of(Evaluation operand) {
-    return new Group(operand.type, operand);
+    return new Group(operand.type, operand.value, operand);
   }
 
   public final Evaluation operand;
 
-  private Group(Type type, Evaluation operand) {
-    super(type);
+  private Group(Type type, Object value, Evaluation operand) {
+    super(type, value);
     this.operand = operand;
   }
 }
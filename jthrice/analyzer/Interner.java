@@ -0,0 +1,119 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.analyzer;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Makes the evaluations, and gives the same one for evaluations with the same
+ * operation, type and operands. Operands are shared first, so they are the
+ * same objects when they are equal; a value is folded once for all the equal
+ * evaluations. Keeps every evaluation it made as long as it is kept.
+ */
+public final class Interner {
+  /** Interner that makes a new evaluation every time. */
+  public static final Interner NONE = new Interner(null);
+
+  public static Interner of() {
+    return new Interner(new HashMap<>());
+  }
+
+  private final Map<Key, Evaluation> evaluations;
+  private int                        shared;
+
+  private Interner(Map<Key, Evaluation> evaluations) {
+    this.evaluations = evaluations;
+  }
+
+  /** Number of the evaluations that were given instead of new ones. */
+  public int shared() {
+    return shared;
+  }
+
+  Literal literal(Type type, Object value) {
+    return (Literal) find(0, type, value, () -> Literal.of(type, value));
+  }
+
+  Access access(Symbol accessed) {
+    return (Access) find(1, accessed, null, () -> Access.of(accessed));
+  }
+
+  Group group(Evaluation operand) {
+    return (Group) find(2, operand, null, () -> Group.of(operand));
+  }
+
+  Posate posate(Evaluation operand) {
+    return (Posate) find(3, operand, null, () -> Posate.of(operand));
+  }
+
+  Negate negate(Evaluation operand) {
+    return (Negate) find(4, operand, null, () -> Negate.of(operand));
+  }
+
+  Multiply multiply(Evaluation left, Evaluation right) {
+    return (Multiply) find(5, left, right, () -> Multiply.of(left, right));
+  }
+
+  Divide divide(Evaluation left, Evaluation right) {
+    return (Divide) find(6, left, right, () -> Divide.of(left, right));
+  }
+
+  Reminder reminder(Evaluation left, Evaluation right) {
+    return (Reminder) find(7, left, right, () -> Reminder.of(left, right));
+  }
+
+  Add add(Evaluation left, Evaluation right) {
+    return (Add) find(8, left, right, () -> Add.of(left, right));
+  }
+
+  Subtract subtract(Evaluation left, Evaluation right) {
+    return (Subtract) find(9, left, right, () -> Subtract.of(left, right));
+  }
+
+  private Evaluation find(int operation, Object first, Object second,
+    Supplier<Evaluation> maker) {
+    if (evaluations == null) {
+      return maker.get();
+    }
+    var key      = new Key(operation, first, second);
+    var existing = evaluations.get(key);
+    if (existing != null) {
+      shared++;
+      return existing;
+    }
+    var evaluation = maker.get();
+    evaluations.put(key, evaluation);
+    return evaluation;
+  }
+
+  /**
+   * Operation with its operands, which are the type and the value for a
+   * literal. Evaluations and symbols are compared by identity.
+   */
+  private static final class Key {
+    final int    operation;
+    final Object first;
+    final Object second;
+
+    Key(int operation, Object first, Object second) {
+      this.operation = operation;
+      this.first     = first;
+      this.second    = second;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Key key && operation == key.operation
+        && Objects.equals(first, key.first)
+        && Objects.equals(second, key.second);
+    }
+
+    @Override
+    public int hashCode() {
+      return (operation * 31 + Objects.hashCode(first)) * 31
+        + Objects.hashCode(second);
+    }
+  }
+}
@@ -5,10 +5,7 @@ public final class Literal extends Evaluation {
     return new Literal(type, value);
   }
 
-  public final Object value;
-
   private Literal(Type type, Object value) {
-    super(type);
-    this.value = value;
+    super(type, value);
   }
 }
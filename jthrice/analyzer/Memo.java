@@ -0,0 +1,50 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.analyzer;
+
+import java.util.*;
+import java.util.function.*;
+
+import jthrice.launcher.*;
+
+/**
+ * Value of an input or a query of the database. A query remembers the memos
+ * it read, so it is only run again when one of them changed after it was
+ * last known to be valid.
+ */
+final class Memo {
+  /** Creates the memo of an input, which is set instead of computed. */
+  static Memo ofInput(Object value) {
+    return new Memo(null, value, List.of(), List.of(), 0, 0);
+  }
+
+  static Memo ofQuery(Function<Resolution, Object> query) {
+    return new Memo(query, null, List.of(), List.of(), -1, -1);
+  }
+
+  /** Computes the value with a resolution, or null for an input. */
+  final Function<Resolution, Object> query;
+
+  Object           value;
+  /** Messages that were logged while computing the value. */
+  List<Diagnostic> diagnostics;
+  /** Memos that were read while computing the value. */
+  List<Memo>       dependencies;
+  /** Last revision the value was known to be valid at. */
+  long             verified;
+  /** Last revision the value was different at. */
+  long             changed;
+  boolean          computing;
+
+  private Memo(Function<Resolution, Object> query, Object value,
+    List<Diagnostic> diagnostics, List<Memo> dependencies, long verified,
+    long changed) {
+    this.query        = query;
+    this.value        = value;
+    this.diagnostics  = diagnostics;
+    this.dependencies = dependencies;
+    this.verified     = verified;
+    this.changed      = changed;
+  }
+}
@@ -2,14 +2,15 @@ package jthrice.analyzer;
 
 public final class Multiply extends Evaluation {
   static Multiply of(Evaluation left, Evaluation right) {
-    return new Multiply(left.type, left, right);
+    return new Multiply(left.type,
+      Arithmetic.multiply(left.type, left.value, right.value), left, right);
   }
 
   public final Evaluation left;
   public final Evaluation right;
 
-  private Multiply(Type type, Evaluation left, Evaluation right) {
-    super(type);
+  private Multiply(Type type, Object value, Evaluation left, Evaluation right) {
+    super(type, value);
     this.left  = left;
     this.right = right;
   }
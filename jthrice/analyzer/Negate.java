@@ -2,13 +2,14 @@ package jthrice.analyzer;
 
 public final class Negate extends Evaluation {
   static Negate of(Evaluation operand) {
-    return new Negate(operand.type, operand);
+    return new Negate(operand.type,
+      Arithmetic.negate(operand.type, operand.value), operand);
   }
 
   public final Evaluation operand;
 
-  private Negate(Type type, Evaluation operand) {
-    super(type);
+  private Negate(Type type, Object value, Evaluation operand) {
+    super(type, value);
     this.operand = operand;
   }
 }
@@ -2,13 +2,13 @@ package jthrice.analyzer;
 
 public final class Posate extends Evaluation {
   static Posate of(Evaluation operand) {
-    return new Posate(operand.type, operand);
+    return new Posate(operand.type, operand.value, operand);
   }
 
   public final Evaluation operand;
 
-  private Posate(Type type, Evaluation operand) {
-    super(type);
+  private Posate(Type type, Object value, Evaluation operand) {
+    super(type, value);
     this.operand = operand;
   }
 }
@@ -2,14 +2,15 @@ package jthrice.analyzer;
 
 public final class Reminder extends Evaluation {
   static Reminder of(Evaluation left, Evaluation right) {
-    return new Reminder(left.type, left, right);
+    return new Reminder(left.type,
+      Arithmetic.reminder(left.type, left.value, right.value), left, right);
   }
 
   public final Evaluation left;
   public final Evaluation right;
 
-  private Reminder(Type type, Evaluation left, Evaluation right) {
-    super(type);
+  private Reminder(Type type, Object value, Evaluation left, Evaluation right) {
+    super(type, value);
     this.left  = left;
     this.right = right;
   }
@@ -0,0 +1,280 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.analyzer;
+
+import java.math.*;
+import java.util.*;
+
+import jthrice.launcher.*;
+import jthrice.parser.*;
+
+/**
+ * Resolves the expressions of a definition. Accessed symbols are asked from
+ * the table, so a query that runs the resolver depends on them.
+ */
+final class Resolver {
+  /** Type of the definition, or null if it could not be resolved. */
+  static Type type(Table table, Resolution resolution,
+    Definition definition) {
+    var resolver = new Resolver(table, resolution, definition);
+    return resolver.resolveType();
+  }
+
+  /** Symbol of the definition with the type, or null if it is not valid. */
+  static Variable symbol(Table table, Resolution resolution,
+    Definition definition, Type type) {
+    var resolver = new Resolver(table, resolution, definition);
+    return resolver.resolveSymbol(type);
+  }
+
+  private final Table      table;
+  private final Resolution resolution;
+  private final Definition definition;
+  private final Tree       tree;
+
+  private Resolver(Table table, Resolution resolution,
+    Definition definition) {
+    this.table      = table;
+    this.resolution = resolution;
+    this.definition = definition;
+    tree            = definition.tree;
+  }
+
+  private Type resolveType() {
+    var name = definition.name.toString();
+    var type = resolveExpression(Type.META, definition.type);
+    if (type == null) {
+      resolution.error("ANALYZER", tree.portion(definition.type),
+        "Could not resolve the type of the definition of `%s`!"
+          .formatted(name));
+      return null;
+    }
+    if (!type.known()) {
+      resolution.error("ANALYZER", tree.portion(definition.type),
+        "Type must be known at compile-time!");
+      return null;
+    }
+    if (type.value instanceof Scalar.Rinf) {
+      resolution.error("ANALYZER", tree.portion(definition.type),
+        "Cannot have a variable of infinite precision real, `%s`!"
+          .formatted(type.value));
+      return null;
+    }
+    return (Type) type.value;
+  }
+
+  private Variable resolveSymbol(Type type) {
+    var name  = definition.name.toString();
+    var value = resolveExpression(type, definition.value);
+    if (value == null) {
+      resolution.error("ANALYZER", tree.portion(definition.value),
+        "Could not resolve the value of the definition of `%s`!"
+          .formatted(name));
+      return null;
+    }
+    return Variable.of(name, value);
+  }
+
+  /**
+   * Evaluation of the expression, or null if it could not be resolved. Nodes
+   * are resolved after their operands with an explicit stack, so the depth
+   * of the expression is not limited by the stack of the thread. An operand
+   * that could not be resolved stops the nodes it is in, which report it.
+   */
+  private Evaluation resolveExpression(Type expected, int expression) {
+    var nodes    = new int[16];
+    var resolved = new int[16];
+    var top      = 0;
+    var results  = new Evaluation[16];
+    var size     = 0;
+    nodes[top++] = expression;
+    while (true) {
+      var node   = nodes[top - 1];
+      var done   = resolved[top - 1];
+      var failed = done != 0 && results[size - 1] == null;
+      if (!failed && done < operands(node)) {
+        resolved[top - 1]++;
+        if (top == nodes.length) {
+          nodes    = Arrays.copyOf(nodes, top * 2);
+          resolved = Arrays.copyOf(resolved, top * 2);
+        }
+        nodes[top]    = tree.operand(node, done);
+        resolved[top] = 0;
+        top++;
+        continue;
+      }
+      var result = failed ? null
+        : resolveNode(expected, node, results, size - done);
+      size -= done;
+      top--;
+      if (top == 0) {
+        return result;
+      }
+      if (result == null) {
+        resolution.error("ANALYZER", tree.portion(node),
+          "Could not resolve the operand!");
+      }
+      if (size == results.length) {
+        results = Arrays.copyOf(results, size * 2);
+      }
+      results[size++] = result;
+    }
+  }
+
+  /** Number of the operands that are resolved before the node. */
+  private int operands(int node) {
+    return switch (tree.operator(node)) {
+      case PrenaryOperator prenary -> 1;
+      case CirnaryOperator cirnary -> 1;
+      case BinaryOperator binary -> 2;
+      default -> 0;
+    };
+  }
+
+  /** Resolves the node from its operands, which start at the index. */
+  private Evaluation resolveNode(Type expected, int node,
+    Evaluation[] operands, int first) {
+    return switch (tree.operator(node)) {
+      case NullaryOperator nullary -> resolveNullary(expected, node,
+        nullary);
+      case PrenaryOperator prenary -> resolvePrenary(expected, node,
+        prenary, operands[first]);
+      case PostaryOperator postary -> resolvePostary(node);
+      case CirnaryOperator cirnary -> resolveCirnary(node, cirnary,
+        operands[first]);
+      case BinaryOperator binary -> resolveBinary(expected, node, binary,
+        operands[first], operands[first + 1]);
+      case VariaryOperator variary -> resolveVariary(node);
+    };
+  }
+
+  private Evaluation resolveNullary(Type expected, int nullary,
+    NullaryOperator operator) {
+    var text = tree.toString(nullary);
+    if (operator == Operator.DECIMAL) {
+      if (!(expected instanceof Scalar scalar)) {
+        resolution.error("ANALYZER", tree.portion(nullary),
+          "Expected `%s` instead of number `%s`!".formatted(expected, text));
+        return null;
+      }
+      var number = new BigDecimal(text);
+      if (!scalar.holds(number)) {
+        resolution.error("ANALYZER", tree.portion(nullary),
+          "Number `%s` cannot be stored in a `%s`!".formatted(text, scalar));
+        return null;
+      }
+      return table.interner.literal(expected, number);
+    }
+
+    var accessed = table.access(text, definition.name.toString());
+    if (accessed == null) {
+      resolution.error("ANALYZER", tree.portion(nullary),
+        "Could not find the accessed symbol `%s`!".formatted(text));
+      var later = table.declaration(text);
+      if (later != null) {
+        resolution.info("ANALYZER", later.portion,
+          "The symbol `%s` is defined later here.".formatted(later));
+      }
+      return null;
+    }
+    if (accessed.evaluation.type != expected) {
+      resolution.error("ANALYZER", tree.portion(nullary),
+        "Expected `%s` instead of `%s`!".formatted(expected,
+          accessed.evaluation.type));
+      return null;
+    }
+
+    return table.interner.access(accessed);
+  }
+
+  private Evaluation resolvePrenary(Type expected, int prenary,
+    PrenaryOperator operator, Evaluation operand) {
+    if (!(expected instanceof Scalar)) {
+      resolution.error("ANALYZER", tree.portion(prenary),
+        "Operator `%s` can not be used with `%s`!".formatted(
+          tree.token(prenary), expected));
+      return null;
+    }
+
+    Evaluation evaluation;
+    if (operator == Operator.POSATE) {
+      evaluation = table.interner.posate(operand);
+    } else if (operator == Operator.NEGATE) {
+      evaluation = table.interner.negate(operand);
+    } else {
+      resolution.error("ANALYZER", tree.portion(prenary),
+        "Unknown prenary operator!");
+      return null;
+    }
+    return overflow(prenary, evaluation);
+  }
+
+  private Evaluation resolvePostary(int postary) {
+    resolution.error("ANALYZER", tree.portion(postary),
+      "Unknown postary operator!");
+    return null;
+  }
+
+  private Evaluation resolveCirnary(int cirnary, CirnaryOperator operator,
+    Evaluation operand) {
+    if (operator != Operator.GROUP) {
+      resolution.error("ANALYZER", tree.portion(cirnary),
+        "Unknown cirnary operator!");
+      return null;
+    }
+    return table.interner.group(operand);
+  }
+
+  private Evaluation resolveBinary(Type expected, int binary,
+    BinaryOperator operator, Evaluation left, Evaluation right) {
+    if (!(expected instanceof Scalar)) {
+      resolution.error("ANALYZER", tree.portion(binary),
+        "Operator `%s` can not be used with `%s`!".formatted(
+          tree.token(binary), expected));
+      return null;
+    }
+
+    Evaluation evaluation;
+    if (operator == Operator.ADD) {
+      evaluation = table.interner.add(left, right);
+    } else if (operator == Operator.SUBTRACT) {
+      evaluation = table.interner.subtract(left, right);
+    } else if (operator == Operator.MULTIPLY) {
+      evaluation = table.interner.multiply(left, right);
+    } else if (operator == Operator.DIVIDE) {
+      evaluation = table.interner.divide(left, right);
+    } else if (operator == Operator.REMINDER) {
+      evaluation = table.interner.reminder(left, right);
+    } else {
+      resolution.error("ANALYZER", tree.portion(binary),
+        "Unknown binary operator!");
+      return null;
+    }
+    if (right.known() && ((BigDecimal) right.value).signum() == 0
+      && (operator == Operator.DIVIDE || operator == Operator.REMINDER)) {
+      resolution.error("ANALYZER", tree.portion(tree.operand(binary, 1)),
+        "Division by zero!");
+      return null;
+    }
+    return overflow(binary, evaluation);
+  }
+
+  private Evaluation resolveVariary(int variary) {
+    resolution.error("ANALYZER", tree.portion(variary),
+      "Unknown variary operator!");
+    return null;
+  }
+
+  /** Gives null after reporting if the known value overflows its type. */
+  private Evaluation overflow(int expression, Evaluation evaluation) {
+    if (evaluation.known()
+      && Arithmetic.overflows(evaluation.type, evaluation.value)) {
+      resolution.error("ANALYZER", tree.portion(expression),
+        "Result `%s` cannot be stored in a `%s`!".formatted(evaluation.value,
+          evaluation.type));
+      return null;
+    }
+    return evaluation;
+  }
+}
@@ -0,0 +1,100 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.analyzer;
+
+import java.util.*;
+
+import jthrice.launcher.*;
+import jthrice.lexer.*;
+import jthrice.parser.*;
+
+/**
+ * Symbols of the definitions that were analyzed so far, for analyzing a file
+ * one definition at a time. A definition can only access the ones before it,
+ * so it is analyzed as soon as it is parsed. Variables with known values are
+ * kept as summaries, which do not hold on to their evaluations; later
+ * definitions get their values as constants.
+ */
+public final class Scope extends Table {
+  public static Scope of() {
+    return Scope.of(Interner.NONE);
+  }
+
+  public static Scope of(Interner interner) {
+    var symbols = new HashMap<String, Symbol>();
+    for (var symbol : Symbol.BUILT_IN) {
+      symbols.put(symbol.name, symbol);
+    }
+    return new Scope(interner, symbols, new HashSet<>(), 0);
+  }
+
+  private final Map<String, Symbol> symbols;
+  /** Names of the user definitions, including the ones that failed. */
+  private final Set<String>         defined;
+  private int                       unresolved;
+
+  private Scope(Interner interner, Map<String, Symbol> symbols,
+    Set<String> defined, int unresolved) {
+    super(interner);
+    this.symbols    = symbols;
+    this.defined    = defined;
+    this.unresolved = unresolved;
+  }
+
+  /**
+   * Analyzes the next definition of the file, and gives the solution of only
+   * its variable. Gives null if the definition is not valid.
+   */
+  public Solution analyze(Resolution resolution, Definition definition) {
+    var name    = definition.name.toString();
+    var builtIn = symbols.get(name);
+    if (builtIn instanceof TypeSymbol) {
+      resolution.error("ANALYZER", definition.name.portion,
+        "Name clashes with the built-in symbol `%s`!".formatted(builtIn));
+      return null;
+    }
+    if (!defined.add(name)) {
+      resolution.error("ANALYZER", definition.name.portion,
+        "Name clashes with the previously defined symbol `%s`!"
+          .formatted(name));
+      return null;
+    }
+    var type     = Resolver.type(this, resolution, definition);
+    var variable = type == null ? null
+      : Resolver.symbol(this, resolution, definition, type);
+    if (variable == null) {
+      unresolved++;
+      return null;
+    }
+    symbols.put(name, variable.evaluation.known()
+      ? Variable.summarize(variable) : variable);
+    return Solution.of(Map.of(name, variable));
+  }
+
+  /** Number of the variables that were analyzed. */
+  public int size() {
+    return symbols.size() - Symbol.BUILT_IN.length;
+  }
+
+  /** Reports if any definition failed, and gives whether all were valid. */
+  public boolean finish(Resolution resolution) {
+    if (unresolved != 0) {
+      resolution.error("ANALYZER", "There were unresolved symbols!");
+      return false;
+    }
+    Metrics.ANALYZED.add(size());
+    return true;
+  }
+
+  @Override
+  Symbol access(String name, String accessor) {
+    return symbols.get(name);
+  }
+
+  /** Later definitions are not known yet. */
+  @Override
+  Identifier declaration(String name) {
+    return null;
+  }
+}
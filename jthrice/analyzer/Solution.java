@@ -3,18 +3,272 @@
 
 package jthrice.analyzer;
 
+import java.math.*;
 import java.util.*;
 
+import jthrice.launcher.*;
+
 public final class Solution {
-  static Solution of(
-    Map<String, Symbol> symbols) {
+  /** Kind of the files that store a solution. */
+  public static final char KIND = 'S';
+
+  static Solution of(Map<String, Symbol> symbols) {
     return new Solution(symbols);
   }
 
+  /**
+   * Reads a solution that was written. Values of the evaluations are found
+   * again from their operands, like they were in the analysis.
+   */
+  public static Solution read(Decoder decoder) {
+    var symbols = new LinkedHashMap<String, Symbol>();
+    for (var i = decoder.unsigned(); i > 0; i--) {
+      var symbol = Solution.readSymbol(decoder, symbols);
+      symbols.put(symbol.name, symbol);
+    }
+    return Solution.of(symbols);
+  }
+
   public final Map<String, Symbol> symbols;
 
-  private Solution(
-    Map<String, Symbol> symbols) {
+  private Solution(Map<String, Symbol> symbols) {
     this.symbols = symbols;
   }
+
+  /**
+   * Variables of the solution, where the ones with known values keep only
+   * their types and values. Unknown values keep their evaluations, which the
+   * files that access them compute again.
+   */
+  public Solution summarize() {
+    var summary = new LinkedHashMap<String, Symbol>();
+    for (var symbol : symbols.values()) {
+      if (symbol instanceof Variable variable) {
+        summary.put(variable.name, variable.evaluation.known()
+          ? Variable.summarize(variable) : variable);
+      }
+    }
+    return Solution.of(summary);
+  }
+
+  /**
+   * Writes the symbols in order. A symbol that is accessed after it was
+   * written is only written as its name.
+   */
+  public void write(Encoder encoder) {
+    var written = new HashMap<String, Symbol>();
+    encoder.unsigned(symbols.size());
+    for (var symbol : symbols.values()) {
+      Solution.writeSymbol(encoder, symbol, written);
+      written.put(symbol.name, symbol);
+    }
+  }
+
+  /**
+   * Writes the symbol with the evaluations in it before their operands. The
+   * parts that wait to be written are kept on a stack instead of recursion,
+   * so the depth of the evaluations does not matter.
+   */
+  private static void writeSymbol(Encoder encoder, Symbol symbol,
+    Map<String, Symbol> written) {
+    var pending = new ArrayDeque<Object>();
+    pending.push(symbol);
+    while (!pending.isEmpty()) {
+      switch (pending.pop()) {
+        case TypeSymbol type -> {
+          encoder.unsigned(0);
+          encoder.unsigned(Arrays.asList(Symbol.BUILT_IN).indexOf(type));
+        }
+        case Variable variable -> {
+          if (written.get(variable.name) == variable) {
+            encoder.unsigned(2);
+            encoder.name(variable.name);
+          } else {
+            encoder.unsigned(1);
+            encoder.name(variable.name);
+            pending.push(variable.evaluation);
+          }
+        }
+        case Literal literal -> {
+          encoder.unsigned(0);
+          Solution.writeType(encoder, literal.type);
+          Solution.writeValue(encoder, literal.value);
+        }
+        case Access access -> {
+          encoder.unsigned(1);
+          pending.push(access.accessed);
+        }
+        case Group group -> {
+          encoder.unsigned(2);
+          pending.push(group.operand);
+        }
+        case Posate posate -> {
+          encoder.unsigned(3);
+          pending.push(posate.operand);
+        }
+        case Negate negate -> {
+          encoder.unsigned(4);
+          pending.push(negate.operand);
+        }
+        case Multiply multiply -> {
+          encoder.unsigned(5);
+          pending.push(multiply.right);
+          pending.push(multiply.left);
+        }
+        case Divide divide -> {
+          encoder.unsigned(6);
+          pending.push(divide.right);
+          pending.push(divide.left);
+        }
+        case Reminder reminder -> {
+          encoder.unsigned(7);
+          pending.push(reminder.right);
+          pending.push(reminder.left);
+        }
+        case Add add -> {
+          encoder.unsigned(8);
+          pending.push(add.right);
+          pending.push(add.left);
+        }
+        case Subtract subtract -> {
+          encoder.unsigned(9);
+          pending.push(subtract.right);
+          pending.push(subtract.left);
+        }
+        default -> throw new IllegalStateException("Unknown part!");
+      }
+    }
+  }
+
+  /**
+   * Reads a symbol in the order it was written. Variables and evaluations
+   * that wait for their operands are kept on a stack instead of recursion,
+   * so the depth of the evaluations does not matter.
+   */
+  private static Symbol readSymbol(Decoder decoder,
+    Map<String, Symbol> read) {
+    var    pending  = new ArrayDeque<Pending>();
+    var    symbol   = true;
+    var    complete = false;
+    Object done     = null;
+    while (true) {
+      if (!complete) {
+        var kind = decoder.unsigned();
+        complete = true;
+        if (symbol) {
+          symbol = false;
+          switch (kind) {
+            case 0 -> done = Symbol.BUILT_IN[decoder.unsigned()];
+            case 1 -> {
+              pending.push(new Pending(Pending.VARIABLE, decoder.name()));
+              complete = false;
+            }
+            case 2 -> done = read.get(decoder.name());
+            default -> throw new IllegalStateException("Unknown symbol kind!");
+          }
+        } else {
+          switch (kind) {
+            case 0 -> done = Literal.of(Solution.readType(decoder),
+              Solution.readValue(decoder));
+            case 1, 2, 3, 4, 5, 6, 7, 8, 9 -> {
+              pending.push(new Pending(kind, null));
+              symbol   = kind == 1;
+              complete = false;
+            }
+            default -> throw new IllegalStateException(
+              "Unknown evaluation kind!");
+          }
+        }
+        continue;
+      }
+      var top = pending.peek();
+      if (top == null) {
+        return (Symbol) done;
+      }
+      if (top.kind >= 5 && top.left == null) {
+        top.left = (Evaluation) done;
+        complete = false;
+        continue;
+      }
+      pending.pop();
+      done = switch (top.kind) {
+        case Pending.VARIABLE -> Variable.of(top.name, (Evaluation) done);
+        case 1 -> Access.of((Symbol) done);
+        case 2 -> Group.of((Evaluation) done);
+        case 3 -> Posate.of((Evaluation) done);
+        case 4 -> Negate.of((Evaluation) done);
+        case 5 -> Multiply.of(top.left, (Evaluation) done);
+        case 6 -> Divide.of(top.left, (Evaluation) done);
+        case 7 -> Reminder.of(top.left, (Evaluation) done);
+        case 8 -> Add.of(top.left, (Evaluation) done);
+        default -> Subtract.of(top.left, (Evaluation) done);
+      };
+    }
+  }
+
+  /** Writes the type as the built-in symbol that has it as its value. */
+  private static void writeType(Encoder encoder, Type type) {
+    if (type == null) {
+      encoder.unsigned(0);
+      return;
+    }
+    for (var i = 0; i < Symbol.BUILT_IN.length; i++) {
+      if (Symbol.BUILT_IN[i].evaluation.value == type) {
+        encoder.unsigned(i + 1);
+        return;
+      }
+    }
+    throw new IllegalArgumentException("Type `%s` is not built-in!"
+      .formatted(type));
+  }
+
+  private static Type readType(Decoder decoder) {
+    var index = decoder.unsigned();
+    return index == 0 ? null
+      : (Type) Symbol.BUILT_IN[index - 1].evaluation.value;
+  }
+
+  private static void writeValue(Encoder encoder, Object value) {
+    switch (value) {
+      case null -> encoder.unsigned(0);
+      case Type type -> {
+        encoder.unsigned(1);
+        Solution.writeType(encoder, type);
+      }
+      case BigDecimal number -> {
+        encoder.unsigned(2);
+        encoder.signed(number.scale());
+        encoder.bytes(number.unscaledValue().toByteArray());
+      }
+      default -> throw new IllegalArgumentException(
+        "Value `%s` cannot be written!".formatted(value));
+    }
+  }
+
+  private static Object readValue(Decoder decoder) {
+    return switch (decoder.unsigned()) {
+      case 0 -> null;
+      case 1 -> Solution.readType(decoder);
+      case 2 -> {
+        var scale = (int) decoder.signed();
+        yield new BigDecimal(new BigInteger(decoder.bytes()), scale);
+      }
+      default -> throw new IllegalStateException("Unknown value kind!");
+    };
+  }
+
+  /** Variable or evaluation that waits for its operands while reading. */
+  private static final class Pending {
+    /** Kind of a variable, which is apart from the evaluation kinds. */
+    static final int VARIABLE = -1;
+
+    final int    kind;
+    final String name;
+    Evaluation   left;
+
+    Pending(int kind, String name) {
+      this.kind = kind;
+      this.name = name;
+    }
+  }
 }
@@ -2,14 +2,15 @@ package jthrice.analyzer;
 
 public final class Subtract extends Evaluation {
   static Subtract of(Evaluation left, Evaluation right) {
-    return new Subtract(left.type, left, right);
+    return new Subtract(left.type,
+      Arithmetic.subtract(left.type, left.value, right.value), left, right);
   }
 
   public final Evaluation left;
   public final Evaluation right;
 
-  private Subtract(Type type, Evaluation left, Evaluation right) {
-    super(type);
+  private Subtract(Type type, Object value, Evaluation left, Evaluation right) {
+    super(type, value);
     this.left  = left;
     this.right = right;
   }
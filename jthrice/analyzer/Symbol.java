@@ -3,8 +3,6 @@
 
 package jthrice.analyzer;
 
-import jthrice.lexer.*;
-
 public sealed abstract class Symbol permits TypeSymbol, Variable {
   public static final Symbol[] BUILT_IN = { TypeSymbol.META, TypeSymbol.I1,
     TypeSymbol.I2, TypeSymbol.I4, TypeSymbol.I8, TypeSymbol.IX, TypeSymbol.U1,
@@ -12,14 +10,11 @@ public sealed abstract class Symbol permits TypeSymbol, Variable {
     TypeSymbol.F8, TypeSymbol.RINF };
 
   public final String     name;
-  public final Identifier declaration;
   public final Evaluation evaluation;
 
-  protected Symbol(String name, Identifier declaration,
-    Evaluation evaluation) {
-    this.name        = name;
-    this.declaration = declaration;
-    this.evaluation  = evaluation;
+  protected Symbol(String name, Evaluation evaluation) {
+    this.name       = name;
+    this.evaluation = evaluation;
   }
 
   @Override
@@ -0,0 +1,22 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.analyzer;
+
+import jthrice.lexer.*;
+
+/** Symbols that the resolver finds the accessed names in. */
+sealed abstract class Table permits Database, Scope {
+  /** Interner that the evaluations of the definitions are made with. */
+  final Interner interner;
+
+  Table(Interner interner) {
+    this.interner = interner;
+  }
+
+  /** Symbol with the name if the accessor can access it, or null. */
+  abstract Symbol access(String name, String accessor);
+
+  /** Name in the first user definition with the name, or null. */
+  abstract Identifier declaration(String name);
+}
@@ -1,17 +0,0 @@
-// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
-// SPDX-License-Identifier: GPL-3.0-or-later
-
-package jthrice.analyzer;
-
-import jthrice.launcher.*;
-import jthrice.parser.*;
-
-final class ThirdPass {
-  static void resolve(Resolution resolution, HalfSolution solution,
-    Root root) {
-    // TODO: Implement user-defined functions.
-  }
-
-  private ThirdPass() {
-  }
-}
@@ -3,11 +3,9 @@
 
 package jthrice.analyzer;
 
-import jthrice.lexer.*;
-
 public final class TypeSymbol extends Symbol {
   public static final TypeSymbol META = new TypeSymbol(Type.META.toString(),
-    null, NullaryEvaluation.of(null, Type.META));
+    Literal.of(null, Type.META));
   public static final TypeSymbol I1   = TypeSymbol.ofScalar(Scalar.I1);
   public static final TypeSymbol I2   = TypeSymbol.ofScalar(Scalar.I2);
   public static final TypeSymbol I4   = TypeSymbol.ofScalar(Scalar.I4);
@@ -23,12 +21,10 @@ public final class TypeSymbol extends Symbol {
   public static final TypeSymbol RINF = TypeSymbol.ofScalar(Scalar.RINF);
 
   private static TypeSymbol ofScalar(Scalar scalar) {
-    return new TypeSymbol(scalar.toString(), null,
-      NullaryEvaluation.of(Type.META, scalar));
+    return new TypeSymbol(scalar.toString(), Literal.of(Type.META, scalar));
   }
 
-  private TypeSymbol(String name, Identifier declaration,
-    Evaluation evaluation) {
-    super(name, declaration, evaluation);
+  private TypeSymbol(String name, Evaluation evaluation) {
+    super(name, evaluation);
   }
 }
@@ -3,20 +3,26 @@
 
 package jthrice.analyzer;
 
-import jthrice.lexer.*;
-import jthrice.parser.*;
-
+/**
+ * Variable with the typed evaluation of its value. Keeps none of the syntax
+ * it was resolved from, so the tree can be collected after the analysis.
+ */
 public final class Variable extends Symbol {
-  static Variable of(Identifier identifier, Evaluation evaluation,
-    Expression bound) {
-    return new Variable(identifier.toString(), identifier, evaluation, bound);
+  static Variable of(String name, Evaluation evaluation) {
+    return new Variable(name, evaluation);
   }
 
-  public final Expression bound;
+  /**
+   * Variable with only the name, type and value of the known variable, which
+   * keeps none of the evaluations it was found from.
+   */
+  static Variable summarize(Variable variable) {
+    var evaluation = variable.evaluation;
+    return new Variable(variable.name,
+      Literal.of(evaluation.type, evaluation.value));
+  }
 
-  private Variable(String name, Identifier declaration, Evaluation evaluation,
-    Expression bound) {
-    super(name, declaration, evaluation);
-    this.bound = bound;
+  private Variable(String name, Evaluation evaluation) {
+    super(name, evaluation);
   }
 }
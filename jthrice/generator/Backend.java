@@ -0,0 +1,53 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.generator;
+
+import java.nio.file.*;
+import java.util.concurrent.*;
+
+import jthrice.launcher.*;
+import jthrice.optimizer.*;
+
+/** Language that is given to the native compiler. */
+public final class Backend {
+  public static final Backend C    = new Backend("c");
+  public static final Backend LLVM = new Backend("llvm");
+
+  public static final Backend[] BACKENDS = { C, LLVM };
+
+  public static Backend of(String name) {
+    for (var backend : BACKENDS) {
+      if (backend.name.equals(name)) {
+        return backend;
+      }
+    }
+    return null;
+  }
+
+  public final String name;
+
+  private Backend(String name) {
+    this.name = name;
+  }
+
+  public CompletableFuture<Invocation> generate(Resolution resolution,
+    Path build, Program program, Builder builder) {
+    if (this == LLVM) {
+      return LLVMGenerator.generate(resolution, build, program, builder);
+    }
+    return Generator.generate(resolution, build, program, builder);
+  }
+
+  public String generate(Program program) {
+    if (this == LLVM) {
+      return LLVMGenerator.generate(program);
+    }
+    return Generator.generate(program);
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
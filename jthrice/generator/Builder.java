@@ -0,0 +1,114 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.generator;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import jthrice.launcher.*;
+
+/**
+ * Runs at most a fixed number of native compiler processes at the same time.
+ * Output of a process is drained by the worker that waits for it, so the
+ * threads that submit the builds can continue with the next source.
+ */
+public final class Builder implements AutoCloseable {
+  /** Creates a builder that adds spans to the trace if it is not null. */
+  public static Builder of(int jobs, Profile profile, boolean emit,
+    boolean run, Trace trace) {
+    return new Builder(Executors.newFixedThreadPool(jobs), profile, emit,
+      run, trace);
+  }
+
+  private final ExecutorService             workers;
+  private final Set<CompletableFuture<?>> pending;
+  final Profile                             profile;
+  /** Whether the generated code is only written, without building it. */
+  final boolean                             emit;
+  /** Whether the built executables are run to measure their time. */
+  final boolean                             run;
+  private final Trace                       trace;
+
+  private Builder(ExecutorService workers, Profile profile, boolean emit,
+    boolean run, Trace trace) {
+    this.workers = workers;
+    this.profile = profile;
+    this.emit    = emit;
+    this.run     = run;
+    this.trace   = trace;
+    pending      = ConcurrentHashMap.newKeySet();
+  }
+
+  /** Makes closing wait for all the steps of the build. */
+  <T> CompletableFuture<T> track(CompletableFuture<T> build) {
+    pending.add(build);
+    build.whenComplete((result, exception) -> pending.remove(build));
+    return build;
+  }
+
+  CompletableFuture<Invocation> run(Resolution resolution, String author,
+    List<String> command) {
+    Metrics.QUEUE.increment();
+    return CompletableFuture.supplyAsync(() -> {
+      Metrics.QUEUE.decrement();
+      return Builder.invoke(resolution, author, command, trace);
+    }, workers);
+  }
+
+  @Override
+  public void close() {
+    CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new))
+      .exceptionally(exception -> null).join();
+    workers.shutdown();
+    try {
+      workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static Invocation invoke(Resolution resolution, String author,
+    List<String> command, Trace trace) {
+    var builder = new ProcessBuilder(command);
+    builder.redirectErrorStream(true);
+    var event = new NativeEvent();
+    event.begin();
+    var start = System.nanoTime();
+    try {
+      var process = builder.start();
+      String output;
+      try (var input = process.getInputStream()) {
+        output = new String(input.readAllBytes());
+      }
+      var status     = process.waitFor();
+      var invocation = Invocation.of(command, status, output,
+        System.nanoTime() - start);
+      event.end();
+      Metrics.NATIVE.record(invocation.time);
+      if (trace != null) {
+        trace.span(command.get(0), resolution.name(), start, start
+          + invocation.time);
+      }
+      if (event.shouldCommit()) {
+        event.file    = resolution.name();
+        event.author  = author;
+        event.command = String.join(" ", command);
+        event.status  = status;
+        event.commit();
+      }
+      invocation.report(resolution, author);
+      return invocation;
+    } catch (IOException e) {
+      resolution.error("GENERATOR",
+        "Could not run the command `%s`!".formatted(command.get(0)));
+      e.printStackTrace();
+    } catch (InterruptedException e) {
+      resolution.error("GENERATOR",
+        "Interrupted while waiting for `%s`!".formatted(command.get(0)));
+      Thread.currentThread().interrupt();
+    }
+    return Invocation.of(command, -1, "", System.nanoTime() - start);
+  }
+}
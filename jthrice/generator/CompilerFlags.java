@@ -5,6 +5,9 @@ package jthrice.generator;
 
 import java.io.*;
 import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
 
 import jthrice.launcher.*;
 
@@ -14,59 +17,117 @@ final class CompilerFlags {
   private final Path       build;
   private final Path       code;
   private final Path       executable;
+  private final Path       rawProfile;
+  private final Path       profile;
+  private final String[]   flags;
 
-  CompilerFlags(Resolution resolution, String command, Path build) {
+  /** Flags are the ones that the language of the code needs. */
+  CompilerFlags(Resolution resolution, String command, Path build,
+    String extension, String... flags) {
     this.resolution = resolution;
     this.command    = command;
     this.build      = build;
-    code            = build.resolve(resolution.name + ".c");
-    executable      = build.resolve(resolution.name + ".exe");
+    this.flags      = flags;
+    code            = build.resolve(resolution.name() + '.' + extension);
+    executable      = build.resolve(resolution.name() + ".exe");
+    rawProfile      = build.resolve(resolution.name() + ".profraw");
+    profile         = build.resolve(resolution.name() + ".profdata");
   }
 
-  void write(String output) {
+  /** Writes the code file, and reports it if it could not be written. */
+  boolean write(String output) {
+    var out = open();
+    if (out == null) {
+      return false;
+    }
+    out.print(output);
+    out.close();
+    if (out.checkError()) {
+      resolution.error("GENERATOR", "Could not write the output file!");
+      return false;
+    }
+    return true;
+  }
+
+  /** Stream to the code file, or null if it could not be created. */
+  PrintStream open() {
     try {
       Files.createDirectories(build);
     } catch (IOException e) {
       resolution.error("GENERATOR", "Could not create build directory!");
       e.printStackTrace();
-      return;
+      return null;
     }
-    try (var out = new PrintStream(Files.newOutputStream(code))) {
-      out.print(output);
+    try {
+      return new PrintStream(
+        new BufferedOutputStream(Files.newOutputStream(code)));
     } catch (IOException e) {
       resolution.error("GENERATOR", "Could not create output file!");
       e.printStackTrace();
-      return;
+      return null;
+    }
+  }
+
+  CompletableFuture<Invocation> compile(Builder builder) {
+    if (builder.emit) {
+      return CompletableFuture.completedFuture(null);
     }
+    if (!builder.profile.guided) {
+      return builder.track(build(builder).thenCompose(
+        built -> CompilerFlags.then(built, () -> measure(builder, built))));
+    }
+    return builder.track(build(builder,
+      "-fprofile-instr-generate=" + path(rawProfile))
+      .thenCompose(instrumented -> CompilerFlags.then(instrumented,
+        () -> builder.run(resolution, "PROGRAM", List.of(path(executable)))))
+      .thenCompose(trained -> CompilerFlags.then(trained,
+        () -> builder.run(resolution, "COMPILER",
+          List.of(Generator.PROFILER, "merge", "-output=" + path(profile),
+            path(rawProfile)))))
+      .thenCompose(merged -> CompilerFlags.then(merged,
+        () -> build(builder, "-fprofile-instr-use=" + path(profile))))
+      .thenCompose(built -> CompilerFlags.then(built,
+        () -> measure(builder, built))));
+  }
+
+  private CompletableFuture<Invocation> build(Builder builder,
+    String... extra) {
+    var arguments = new ArrayList<String>();
+    arguments.add(command);
+    arguments.addAll(builder.profile.flags);
+    arguments.addAll(List.of(flags));
+    arguments.addAll(List.of(extra));
+    arguments.addAll(List.of("-o", path(executable), path(code), "-lm"));
+    return builder.run(resolution, "COMPILER", arguments);
   }
 
-  void compile() {
-    var builder = new ProcessBuilder(command, "-o",
-      executable.toAbsolutePath().toString(), code.toAbsolutePath().toString());
-    builder.redirectErrorStream(true);
-    Process process = null;
+  /** Reports the size of the executable and its time if it is run. */
+  private CompletableFuture<Invocation> measure(Builder builder,
+    Invocation built) {
     try {
-      process = builder.start();
+      resolution.info("GENERATOR", "Built `%s` with the `%s` profile, %d bytes."
+        .formatted(executable.getFileName(), builder.profile,
+          Files.size(executable)));
     } catch (IOException e) {
-      resolution.error("GENERATOR", "Could not run to compile command!");
+      resolution.error("GENERATOR", "Could not read the executable size!");
       e.printStackTrace();
-      return;
     }
-    var reader = new BufferedReader(
-      new InputStreamReader(process.getInputStream()));
-    while (true) {
-      String line = null;
-      try {
-        line = reader.readLine();
-      } catch (IOException e) {
-        resolution.error("GENERATOR", "Could not read the compiler output!");
-        e.printStackTrace();
-        return;
-      }
-      if (line == null) {
-        break;
-      }
-      resolution.info("COMPILER", line);
+    if (!builder.run) {
+      return CompletableFuture.completedFuture(built);
+    }
+    return builder.run(resolution, "PROGRAM", List.of(path(executable)));
+  }
+
+  private static String path(Path path) {
+    return path.toAbsolutePath().toString();
+  }
+
+  /** Continues with the next step only if the previous one succeeded. */
+  private static CompletableFuture<Invocation> then(Invocation previous,
+    Supplier<CompletableFuture<Invocation>> next) {
+    if (previous == null || !previous.succeeded()) {
+      return CompletableFuture.completedFuture(previous);
     }
+    return next.get();
   }
 }
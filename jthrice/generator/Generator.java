@@ -6,34 +6,74 @@ package jthrice.generator;
 import java.math.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 import jthrice.analyzer.*;
 import jthrice.launcher.*;
+import jthrice.optimizer.*;
 
 public final class Generator {
   public static final String COMPILER = "clang";
+  public static final String PROFILER = "llvm-profdata";
 
-  public static void generate(Resolution resolution, Path build,
-    Solution solution) {
+  public static CompletableFuture<Invocation> generate(Resolution resolution,
+    Path build, Program program, Builder builder) {
+    var compilerFlags = Generator.flags(resolution, build);
+    if (!compilerFlags.write(Generator.generate(program))) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return compilerFlags.compile(builder);
+  }
+
+  public static String generate(Program program) {
     var buffer = new StringBuilder();
-    Generator.generateIncludes(buffer, "stdio", "stdint");
+    Generator.generateStart(buffer);
+    Generator.generateProgram(buffer, program, 0);
+    Generator.generateEnd(buffer);
+    return buffer.toString();
+  }
+
+  static CompilerFlags flags(Resolution resolution, Path build) {
+    // Signed integers wrap as they do in LLVM IR, which the passes rely on.
+    return new CompilerFlags(resolution, Generator.COMPILER, build, "c",
+      "-fwrapv");
+  }
+
+  static void generateStart(StringBuilder buffer) {
+    Generator.generateIncludes(buffer, "stdio", "stdint", "math");
     Generator.generate(buffer, Indentation.of(0),
       "int main(int argc, char** argv) {", Indentation.of(1));
-    for (var symbol : solution.symbols.values()) {
-      Generator.generateSymbol(buffer, symbol, Indentation.of(1));
+  }
+
+  /**
+   * Generates the statements of the program in the main function, with the
+   * operations numbered from the first one. Gives the number after the last
+   * operation.
+   */
+  static int generateProgram(StringBuilder buffer, Program program,
+    int first) {
+    var names = new IdentityHashMap<Operation, String>();
+    for (var operation : program.operations) {
+      names.put(operation, "t$" + (first + names.size()));
+      Generator.generateOperation(buffer, names, operation,
+        Indentation.of(1));
+    }
+    if (!program.operations.isEmpty()) {
+      Generator.generate(buffer, Indentation.of(1));
     }
+    for (var binding : program.bindings) {
+      Generator.generateBinding(buffer, names, binding, Indentation.of(1));
+    }
+    return first + names.size();
+  }
+
+  static void generateEnd(StringBuilder buffer) {
     Generator.generate(buffer, Indentation.of(0), "}");
-    var compilerFlags = new CompilerFlags(resolution, Generator.COMPILER,
-      build);
-    compilerFlags.write(buffer.toString());
-    compilerFlags.compile();
   }
 
   private static void generate(StringBuilder buffer, Object... objects) {
     for (var object : objects) {
       switch (object) {
-        case Evaluation evaluation ->
-          Generator.generateEvaluation(buffer, evaluation);
         case Type type -> Generator.generateType(buffer, type);
         case Indentation indentation ->
           Generator.generateNewLine(buffer, indentation);
@@ -55,32 +95,94 @@ public final class Generator {
     }
   }
 
-  private static void generateSymbol(StringBuilder buffer, Symbol symbol,
+  /** Operations are named with a `$`, which is not allowed in Thrice. */
+  private static void generateOperation(StringBuilder buffer,
+    Map<Operation, String> names, Operation operation,
     Indentation indentation) {
-    switch (symbol) {
-      case TypeSymbol typeSymbol ->
-        Generator.generateTypeSymbol(buffer, typeSymbol, indentation);
-      case Variable variable ->
-        Generator.generateVariable(buffer, variable, indentation);
+    Generator.generate(buffer, operation.type, " ", names.get(operation),
+      " = ");
+    var first = operation.operands.get(0);
+    if (operation.opcode == Opcode.NEGATE) {
+      Generator.generate(buffer, "-(");
+      Generator.generateValue(buffer, names, first);
+      Generator.generate(buffer, ");", indentation);
+      return;
+    }
+    var second = operation.operands.get(1);
+    if (operation.opcode == Opcode.REMINDER
+      && operation.type instanceof Scalar.Floating) {
+      Generator.generate(buffer,
+        operation.type instanceof Scalar.F4 ? "fmodf(" : "fmod(");
+      Generator.generateValue(buffer, names, first);
+      Generator.generate(buffer, ", ");
+      Generator.generateValue(buffer, names, second);
+      Generator.generate(buffer, ");", indentation);
+      return;
     }
+    Generator.generateValue(buffer, names, first);
+    Generator.generate(buffer, " ", Generator.operator(operation.opcode), " ");
+    Generator.generateValue(buffer, names, second);
+    Generator.generate(buffer, ";", indentation);
   }
 
-  private static void generateTypeSymbol(StringBuilder buffer,
-    TypeSymbol typeSymbol, Indentation indentation) {
+  private static String operator(Opcode opcode) {
+    if (opcode == Opcode.ADD) {
+      return "+";
+    }
+    if (opcode == Opcode.SUBTRACT) {
+      return "-";
+    }
+    if (opcode == Opcode.MULTIPLY) {
+      return "*";
+    }
+    if (opcode == Opcode.DIVIDE) {
+      return "/";
+    }
+    if (opcode == Opcode.REMINDER) {
+      return "%";
+    }
+    if (opcode == Opcode.SHIFT) {
+      return ">>";
+    }
+    if (opcode == Opcode.AND) {
+      return "&";
+    }
+    throw new RuntimeException("Unknown opcode `%s`!".formatted(opcode));
   }
 
-  private static void generateVariable(StringBuilder buffer, Variable variable,
-    Indentation indentation) {
+  private static void generateBinding(StringBuilder buffer,
+    Map<Operation, String> names, Binding binding, Indentation indentation) {
+    Generator.generate(buffer, binding.value.type, " ", binding.name, " = ");
+    Generator.generateValue(buffer, names, binding.value);
+    Generator.generate(buffer, ";", indentation);
+    Generator.generatePrint(buffer, binding.value.type, binding.name,
+      indentation);
+    Generator.generate(buffer, indentation);
+  }
 
-    Generator.generate(buffer, variable.evaluation.type, " ", variable.name,
-      " = ", variable.evaluation, ";", indentation);
+  private static void generateValue(StringBuilder buffer,
+    Map<Operation, String> names, Value value) {
+    switch (value) {
+      case Operation operation ->
+        Generator.generate(buffer, names.get(operation));
+      case Constant constant -> Generator.generateConstant(buffer, constant);
+    }
+  }
 
-    switch (variable.evaluation.type) {
-      case Scalar scalar ->
-        Generator.generatePrint(buffer, scalar, variable.name, indentation);
+  private static void generateConstant(StringBuilder buffer,
+    Constant constant) {
+    Generator.generate(buffer, constant.value);
+    switch (constant.type) {
+      case Scalar.Unsigned unsigned -> Generator.generate(buffer, "u");
+      default -> Generator.generate(buffer, "");
+    }
+    switch (constant.type) {
+      case Scalar.I8 i8 -> Generator.generate(buffer, "ll");
+      case Scalar.Ix ix -> Generator.generate(buffer, "ll");
+      case Scalar.U8 u8 -> Generator.generate(buffer, "ll");
+      case Scalar.Ux ux -> Generator.generate(buffer, "ll");
       default -> Generator.generate(buffer, "");
     }
-    Generator.generate(buffer, indentation);
   }
 
   private static void generatePrint(StringBuilder buffer, Scalar scalar,
@@ -159,75 +261,6 @@ public final class Generator {
     }
   }
 
-  private static void generateEvaluation(StringBuilder buffer,
-    Evaluation evaluation) {
-    switch (evaluation) {
-      case Evaluation.Nofix nofix -> Generator.generateNofix(buffer, nofix);
-      case Evaluation.Prefix prefix -> Generator.generatePrefix(buffer, prefix);
-      case Evaluation.Postfix postfix ->
-        Generator.generatePostfix(buffer, postfix);
-      case Evaluation.Infix infix -> Generator.generateInfix(buffer, infix);
-      case Evaluation.Outfix outfix -> Generator.generateOutfix(buffer, outfix);
-      case Evaluation.Knitfix knitfix ->
-        Generator.generateKnitfix(buffer, knitfix);
-    }
-  }
-
-  private static void generateNofix(StringBuilder buffer,
-    Evaluation.Nofix nofix) {
-    if (nofix.known()) {
-      Generator.generate(buffer, nofix.value);
-      return;
-    }
-    Generator.generate(buffer, nofix.first);
-  }
-
-  private static void generatePrefix(StringBuilder buffer,
-    Evaluation.Prefix prefix) {
-    if (prefix.known()) {
-      Generator.generate(buffer, prefix.value);
-      return;
-    }
-    Generator.generate(buffer, prefix.before, prefix.last);
-  }
-
-  private static void generatePostfix(StringBuilder buffer,
-    Evaluation.Postfix postfix) {
-    if (postfix.known()) {
-      Generator.generate(buffer, postfix.value);
-      return;
-    }
-    Generator.generate(buffer, postfix.first, postfix.after);
-  }
-
-  private static void generateInfix(StringBuilder buffer,
-    Evaluation.Infix infix) {
-    if (infix.known()) {
-      Generator.generate(buffer, infix.value);
-      return;
-    }
-    Generator.generate(buffer, infix.first, infix.between, infix.last);
-  }
-
-  private static void generateOutfix(StringBuilder buffer,
-    Evaluation.Outfix outfix) {
-    if (outfix.known()) {
-      Generator.generate(buffer, outfix.value);
-      return;
-    }
-    Generator.generate(buffer, outfix.before, outfix.middle, outfix.after);
-  }
-
-  private static void generateKnitfix(StringBuilder buffer,
-    Evaluation.Knitfix knitfix) {
-    if (knitfix.known()) {
-      Generator.generate(buffer, knitfix.value);
-      return;
-    }
-    Generator.generate(buffer, knitfix.before, knitfix.between, knitfix.after,
-      knitfix.first, knitfix.middle, knitfix.last);
-  }
-
   private static void generateNewLine(StringBuilder buffer,
     Indentation indentation) {
     final var INDENTATION = "  ";
@@ -236,4 +269,7 @@ public final class Generator {
       buffer.append(INDENTATION);
     }
   }
+
+  private Generator() {
+  }
 }
@@ -0,0 +1,43 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.generator;
+
+import java.util.*;
+
+import jthrice.launcher.*;
+
+/** Result of a finished native process. */
+public final class Invocation {
+  static Invocation of(List<String> command, int status, String output,
+    long time) {
+    return new Invocation(command, status, output, time);
+  }
+
+  public final List<String> command;
+  public final int          status;
+  public final String       output;
+  public final long         time;
+
+  private Invocation(List<String> command, int status, String output,
+    long time) {
+    this.command = command;
+    this.status  = status;
+    this.output  = output;
+    this.time    = time;
+  }
+
+  public boolean succeeded() {
+    return status == 0;
+  }
+
+  void report(Resolution resolution, String author) {
+    output.lines().forEach(line -> resolution.info(author, line));
+    resolution.info(author, "`%s` exited with status %d in %.3f ms."
+      .formatted(command.get(0), status, time / 1e6));
+    if (!succeeded()) {
+      resolution.error(author,
+        "`%s` failed for `%s`!".formatted(command.get(0), resolution.name()));
+    }
+  }
+}
@@ -0,0 +1,222 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.generator;
+
+import java.math.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import jthrice.analyzer.*;
+import jthrice.launcher.*;
+import jthrice.optimizer.*;
+
+/**
+ * Writes the program as textual LLVM IR, which the native compiler takes
+ * without parsing and checking the program again like it does for C.
+ */
+public final class LLVMGenerator {
+  public static CompletableFuture<Invocation> generate(Resolution resolution,
+    Path build, Program program, Builder builder) {
+    var compilerFlags = new CompilerFlags(resolution, Generator.COMPILER,
+      build, "ll");
+    if (!compilerFlags.write(LLVMGenerator.generate(program))) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return compilerFlags.compile(builder);
+  }
+
+  public static String generate(Program program) {
+    var generator = new LLVMGenerator(new StringBuilder(), new StringBuilder(),
+      new IdentityHashMap<>(), 0);
+    generator.generateProgram(program);
+    return generator.globals.append(System.lineSeparator())
+      .append(generator.body).toString();
+  }
+
+  private final StringBuilder          globals;
+  private final StringBuilder          body;
+  private final Map<Operation, String> operands;
+
+  private int temporaries;
+
+  private LLVMGenerator(StringBuilder globals, StringBuilder body,
+    Map<Operation, String> operands, int temporaries) {
+    this.globals     = globals;
+    this.body        = body;
+    this.operands    = operands;
+    this.temporaries = temporaries;
+  }
+
+  private void generateProgram(Program program) {
+    line(globals, "declare i32 @printf(ptr, ...)");
+    line(body, "define i32 @main(i32 %argc, ptr %argv) {");
+    line(body, "entry:");
+    for (var operation : program.operations) {
+      generateOperation(operation);
+    }
+    for (var binding : program.bindings) {
+      generateBinding(binding);
+    }
+    line(body, "  ret i32 0");
+    line(body, "}");
+  }
+
+  private void generateBinding(Binding binding) {
+    var scalar  = binding.value.type;
+    var operand = operand(binding.value);
+
+    var format = "%s = %%%s\n".formatted(binding.name,
+      LLVMGenerator.format(scalar));
+    var bytes  = format.getBytes(StandardCharsets.US_ASCII);
+    line(globals, "@.%s = private unnamed_addr constant [%d x i8] c\"%s\\00\""
+      .formatted(binding.name, bytes.length + 1,
+        format.replace("\n", "\\0A")));
+
+    var argument = switch (scalar) {
+      case Scalar.I1 i1 -> convert("sext", scalar, operand, "i32");
+      case Scalar.I2 i2 -> convert("sext", scalar, operand, "i32");
+      case Scalar.U1 u1 -> convert("zext", scalar, operand, "i32");
+      case Scalar.U2 u2 -> convert("zext", scalar, operand, "i32");
+      case Scalar.F4 f4 -> convert("fpext", scalar, operand, "double");
+      default -> LLVMGenerator.type(scalar) + ' ' + operand;
+    };
+    line(body, "  call i32 (ptr, ...) @printf(ptr @.%s, %s)"
+      .formatted(binding.name, argument));
+  }
+
+  private String convert(String conversion, Scalar scalar, String operand,
+    String target) {
+    var result = temporary();
+    line(body, "  %s = %s %s %s to %s".formatted(result, conversion,
+      LLVMGenerator.type(scalar), operand, target));
+    return target + ' ' + result;
+  }
+
+  private void generateOperation(Operation operation) {
+    var scalar = operation.type;
+    var result = temporary();
+    operands.put(operation, result);
+    var first = operand(operation.operands.get(0));
+    if (operation.opcode == Opcode.NEGATE) {
+      if (scalar instanceof Scalar.Floating) {
+        line(body, "  %s = fneg %s %s".formatted(result,
+          LLVMGenerator.type(scalar), first));
+      } else {
+        line(body, "  %s = sub %s 0, %s".formatted(result,
+          LLVMGenerator.type(scalar), first));
+      }
+      return;
+    }
+    var second = operand(operation.operands.get(1));
+    line(body, "  %s = %s %s %s, %s".formatted(result,
+      LLVMGenerator.instruction(operation), LLVMGenerator.type(scalar), first,
+      second));
+  }
+
+  private String operand(Value value) {
+    return switch (value) {
+      case Operation operation -> operands.get(operation);
+      case Constant constant ->
+        LLVMGenerator.constant(constant.type, constant.value);
+    };
+  }
+
+  /** Temporaries have a dot in them so they never clash with variables. */
+  private String temporary() {
+    return "%.t" + temporaries++;
+  }
+
+  private static void line(StringBuilder buffer, String line) {
+    buffer.append(line).append(System.lineSeparator());
+  }
+
+  private static String instruction(Operation operation) {
+    if (operation.opcode == Opcode.ADD) {
+      return LLVMGenerator.instruction(operation.type, "add", "add", "fadd");
+    }
+    if (operation.opcode == Opcode.SUBTRACT) {
+      return LLVMGenerator.instruction(operation.type, "sub", "sub", "fsub");
+    }
+    if (operation.opcode == Opcode.MULTIPLY) {
+      return LLVMGenerator.instruction(operation.type, "mul", "mul", "fmul");
+    }
+    if (operation.opcode == Opcode.DIVIDE) {
+      return LLVMGenerator.instruction(operation.type, "sdiv", "udiv",
+        "fdiv");
+    }
+    if (operation.opcode == Opcode.REMINDER) {
+      return LLVMGenerator.instruction(operation.type, "srem", "urem",
+        "frem");
+    }
+    if (operation.opcode == Opcode.SHIFT) {
+      return "lshr";
+    }
+    if (operation.opcode == Opcode.AND) {
+      return "and";
+    }
+    throw new RuntimeException(
+      "Unknown opcode `%s`!".formatted(operation.opcode));
+  }
+
+  private static String instruction(Scalar scalar, String signed,
+    String unsigned, String floating) {
+    return switch (scalar) {
+      case Scalar.Signed s -> signed;
+      case Scalar.Unsigned u -> unsigned;
+      case Scalar.Floating f -> floating;
+      case Scalar.Rinf rinf ->
+        throw new RuntimeException("There is an undeduced `rinf` type!");
+    };
+  }
+
+  static String type(Scalar scalar) {
+    return switch (scalar) {
+      case Scalar.I1 i1 -> "i8";
+      case Scalar.I2 i2 -> "i16";
+      case Scalar.I4 i4 -> "i32";
+      case Scalar.I8 i8 -> "i64";
+      case Scalar.Ix ix -> "i64";
+      case Scalar.U1 u1 -> "i8";
+      case Scalar.U2 u2 -> "i16";
+      case Scalar.U4 u4 -> "i32";
+      case Scalar.U8 u8 -> "i64";
+      case Scalar.Ux ux -> "i64";
+      case Scalar.F4 f4 -> "float";
+      case Scalar.F8 f8 -> "double";
+      case Scalar.Rinf rinf ->
+        throw new RuntimeException("There is an undeduced `rinf` type!");
+    };
+  }
+
+  /** Floating constants are written as the exact bits of a double. */
+  static String constant(Scalar scalar, BigDecimal value) {
+    return switch (scalar) {
+      case Scalar.F4 f4 -> "0x%016X".formatted(
+        Double.doubleToRawLongBits((double) value.floatValue()));
+      case Scalar.F8 f8 -> "0x%016X".formatted(
+        Double.doubleToRawLongBits(value.doubleValue()));
+      default -> value.toBigIntegerExact().toString();
+    };
+  }
+
+  private static String format(Scalar scalar) {
+    return switch (scalar) {
+      case Scalar.I1 i1 -> "hhi";
+      case Scalar.I2 i2 -> "hi";
+      case Scalar.I4 i4 -> "i";
+      case Scalar.I8 i8 -> "lli";
+      case Scalar.Ix ix -> "lli";
+      case Scalar.U1 u1 -> "hhu";
+      case Scalar.U2 u2 -> "hu";
+      case Scalar.U4 u4 -> "u";
+      case Scalar.U8 u8 -> "llu";
+      case Scalar.Ux ux -> "llu";
+      case Scalar.Floating floating -> "f";
+      case Scalar.Rinf rinf ->
+        throw new RuntimeException("There is an undeduced `rinf` type!");
+    };
+  }
+}
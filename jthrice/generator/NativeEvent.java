@@ -0,0 +1,23 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.generator;
+
+import jdk.jfr.*;
+
+/** Flight Recorder event of running a native process for a file. */
+@Name("jthrice.Native")
+@Label("Native Process")
+@Category("Thrice")
+@Description("A run of the native compiler, profiler or built program.")
+@StackTrace(false)
+final class NativeEvent extends Event {
+  @Label("File")
+  String file;
+  @Label("Author")
+  String author;
+  @Label("Command")
+  String command;
+  @Label("Status")
+  int    status;
+}
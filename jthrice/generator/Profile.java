@@ -0,0 +1,49 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.generator;
+
+import java.util.*;
+
+/** Optimization flags that are given to the native compiler. */
+public final class Profile {
+  public static final Profile DEBUG  = Profile.of("debug", false, "-O0",
+    "-g");
+  public static final Profile O2     = Profile.of("o2", false, "-O2");
+  public static final Profile NATIVE = Profile.of("native", false, "-O3",
+    "-march=native");
+  public static final Profile LTO    = Profile.of("lto", false, "-O2", "-flto",
+    "-fuse-ld=lld");
+  public static final Profile PGO    = Profile.of("pgo", true, "-O2");
+
+  public static final Profile[] PROFILES = { DEBUG, O2, NATIVE, LTO, PGO };
+
+  public static Profile of(String name) {
+    for (var profile : PROFILES) {
+      if (profile.name.equals(name)) {
+        return profile;
+      }
+    }
+    return null;
+  }
+
+  private static Profile of(String name, boolean guided, String... flags) {
+    return new Profile(name, guided, List.of(flags));
+  }
+
+  public final String       name;
+  /** Whether the build is instrumented, trained and rebuilt. */
+  public final boolean      guided;
+  public final List<String> flags;
+
+  private Profile(String name, boolean guided, List<String> flags) {
+    this.name   = name;
+    this.guided = guided;
+    this.flags  = flags;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -0,0 +1,76 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.generator;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.concurrent.*;
+
+import jthrice.launcher.*;
+import jthrice.optimizer.*;
+
+/**
+ * Writes the C code of the programs one after the other into a single main
+ * function, so the code of a file is never kept whole in memory.
+ */
+public final class StreamGenerator {
+  /** Starts the code file, or gives null if it could not be created. */
+  public static StreamGenerator of(Resolution resolution, Path build) {
+    var compilerFlags = Generator.flags(resolution, build);
+    var out           = compilerFlags.open();
+    if (out == null) {
+      return null;
+    }
+    var generator = new StreamGenerator(resolution, compilerFlags, out,
+      new StringBuilder());
+    Generator.generateStart(generator.buffer);
+    generator.flush();
+    return generator;
+  }
+
+  private final Resolution    resolution;
+  private final CompilerFlags compilerFlags;
+  private final PrintStream   out;
+  private final StringBuilder buffer;
+  /** Number of the operations that were generated. */
+  private int                 operations;
+
+  private StreamGenerator(Resolution resolution, CompilerFlags compilerFlags,
+    PrintStream out, StringBuilder buffer) {
+    this.resolution    = resolution;
+    this.compilerFlags = compilerFlags;
+    this.out           = out;
+    this.buffer        = buffer;
+  }
+
+  /** Appends the statements of the program to the code. */
+  public void generate(Program program) {
+    operations = Generator.generateProgram(buffer, program, operations);
+    flush();
+  }
+
+  /**
+   * Ends the code and compiles it if the whole file was generated. Gives a
+   * completed build if it was not compiled.
+   */
+  public CompletableFuture<Invocation> finish(Builder builder,
+    boolean complete) {
+    Generator.generateEnd(buffer);
+    flush();
+    out.close();
+    if (out.checkError()) {
+      resolution.error("GENERATOR", "Could not write the output file!");
+      return CompletableFuture.completedFuture(null);
+    }
+    if (!complete) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return compilerFlags.compile(builder);
+  }
+
+  private void flush() {
+    out.append(buffer);
+    buffer.setLength(0);
+  }
+}
@@ -0,0 +1,37 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+/**
+ * Range of an edited source that changed. Characters and lines before the
+ * change are the same, and the ones after it moved by the difference of the
+ * inserted and removed counts.
+ */
+public final class Change {
+  static Change of(int index, int removed, int inserted, int line,
+    int removedLines, int insertedLines) {
+    return new Change(index, removed, inserted, line, removedLines,
+      insertedLines);
+  }
+
+  public final int index;
+  public final int removed;
+  public final int inserted;
+  /** Line of the index, starting from 1. */
+  public final int line;
+  /** Number of line ends that were removed. */
+  public final int removedLines;
+  /** Number of line ends that were inserted. */
+  public final int insertedLines;
+
+  private Change(int index, int removed, int inserted, int line,
+    int removedLines, int insertedLines) {
+    this.index         = index;
+    this.removed       = removed;
+    this.inserted      = inserted;
+    this.line          = line;
+    this.removedLines  = removedLines;
+    this.insertedLines = insertedLines;
+  }
+}
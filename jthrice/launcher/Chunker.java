@@ -0,0 +1,54 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * Reads a file as parts of whole lines, where each part ends with a line
+ * that ends after a semicolon. No token contains a semicolon, so lexing and
+ * parsing the parts one by one gives the same definitions as the whole file
+ * when it has no syntax errors. A line with more text after its last
+ * semicolon continues into the next part.
+ */
+final class Chunker implements Closeable {
+  static Chunker of(String name) throws IOException {
+    var path = Path.of(name + '.' + Source.EXTENSION).toAbsolutePath();
+    return new Chunker(name, Files.newBufferedReader(path), 0);
+  }
+
+  private final String         name;
+  private final BufferedReader reader;
+
+  /** Number of the lines that were read. */
+  private int line;
+
+  private Chunker(String name, BufferedReader reader, int line) {
+    this.name   = name;
+    this.reader = reader;
+    this.line   = line;
+  }
+
+  /** Next part of the file, or null if the file ended. */
+  Source next() throws IOException {
+    var text  = new StringBuilder();
+    var first = line + 1;
+    for (var read = reader.readLine(); read != null; read = reader
+      .readLine()) {
+      line++;
+      text.append(read).append('\n');
+      var semicolon = read.lastIndexOf(';');
+      if (semicolon != -1 && read.substring(semicolon + 1).isBlank()) {
+        return Source.of(name, text.toString(), first);
+      }
+    }
+    return text.isEmpty() ? null : Source.of(name, text.toString(), first);
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
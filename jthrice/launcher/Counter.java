@@ -0,0 +1,39 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/** Metric that only goes up. */
+public final class Counter extends Metric {
+  public static Counter of(String name, String help, String label) {
+    return new Counter(name, help, label, new LongAdder());
+  }
+
+  private final LongAdder adder;
+
+  private Counter(String name, String help, String label, LongAdder adder) {
+    super(name, help, label);
+    this.adder = adder;
+  }
+
+  public void add(long amount) {
+    adder.add(amount);
+  }
+
+  public long value() {
+    return adder.sum();
+  }
+
+  @Override
+  void write(StringBuilder out) {
+    sample(out, "", null, value());
+  }
+
+  @Override
+  void attributes(Map<String, Long> attributes) {
+    attributes.put(attribute(""), value());
+  }
+}
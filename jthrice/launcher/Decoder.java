@@ -0,0 +1,101 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Reads what an encoder wrote, straight from a buffer. A mapped file is read
+ * in place, so only the values that are read are copied to the heap. Bytes
+ * that were not written by an encoder throw a runtime exception.
+ */
+public final class Decoder {
+  /** Maps the file and reads it, or gives null if it is not of the kind. */
+  public static Decoder map(Path path, char kind) throws IOException {
+    try (var channel = FileChannel.open(path)) {
+      return Decoder.of(
+        channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), kind);
+    }
+  }
+
+  /**
+   * Reads a file of the kind from the buffer, or gives null if it is of
+   * another kind or of another version of the format.
+   */
+  public static Decoder of(ByteBuffer buffer, char kind) {
+    var decoder = new Decoder(buffer.duplicate(), new ArrayList<>());
+    for (var value : Encoder.MAGIC) {
+      if (!decoder.buffer.hasRemaining() || decoder.buffer.get() != value) {
+        return null;
+      }
+    }
+    if (decoder.unsigned() != Encoder.VERSION
+      || decoder.buffer.get() != (byte) kind) {
+      return null;
+    }
+    return decoder;
+  }
+
+  private final ByteBuffer   buffer;
+  /** Names that were read, by their index. */
+  private final List<String> names;
+
+  private Decoder(ByteBuffer buffer, List<String> names) {
+    this.buffer = buffer;
+    this.names  = names;
+  }
+
+  public int unsigned() {
+    var value = 0;
+    for (var shift = 0; shift < 32; shift += 7) {
+      var read = buffer.get();
+      value |= (read & 0x7F) << shift;
+      if (read >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalStateException("Varint is too long!");
+  }
+
+  public long signed() {
+    var zigzag = 0L;
+    for (var shift = 0; shift < 64; shift += 7) {
+      var read = buffer.get();
+      zigzag |= (long) (read & 0x7F) << shift;
+      if (read >= 0) {
+        return zigzag >>> 1 ^ -(zigzag & 1);
+      }
+    }
+    throw new IllegalStateException("Varint is too long!");
+  }
+
+  public byte[] bytes() {
+    var value = new byte[unsigned()];
+    buffer.get(value);
+    return value;
+  }
+
+  public String name() {
+    var index = unsigned();
+    if (index != 0) {
+      return names.get(index - 1);
+    }
+    var length = unsigned();
+    var name   = StandardCharsets.UTF_8
+      .decode(buffer.slice(buffer.position(), length)).toString();
+    buffer.position(buffer.position() + length);
+    names.add(name);
+    return name;
+  }
+
+  /** Whether all the bytes were read. */
+  public boolean finished() {
+    return !buffer.hasRemaining();
+  }
+}
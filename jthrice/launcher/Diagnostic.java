@@ -0,0 +1,26 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+/** Message that was logged to a resolution instead of being printed. */
+public final class Diagnostic {
+  static Diagnostic of(String author, Portion portion, String severity,
+    String message) {
+    return new Diagnostic(author, portion, severity, message);
+  }
+
+  public final String  author;
+  /** Part of the source that the message is about, or null. */
+  public final Portion portion;
+  public final String  severity;
+  public final String  message;
+
+  private Diagnostic(String author, Portion portion, String severity,
+    String message) {
+    this.author   = author;
+    this.portion  = portion;
+    this.severity = severity;
+    this.message  = message;
+  }
+}
@@ -0,0 +1,268 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+import java.util.*;
+import java.util.regex.*;
+
+/**
+ * Source that can be edited, kept as a piece table. The original text and
+ * all the inserted text are never changed; the characters are pieces of
+ * them in order. An edit splits at most two pieces and appends the inserted
+ * text, so it copies no characters of the rest of the file. Line ends of
+ * both buffers are indexed once, and the pieces are kept in spans that sum
+ * their lengths and line ends, so edits and lines take logarithmic time.
+ */
+public final class EditableSource extends Source {
+  public static EditableSource of(String name, String text) {
+    var original = Source.contents(text);
+    var source   = new EditableSource(name, original,
+      EditableSource.ends(original, 0), new StringBuilder(), new int[16], 0,
+      Spans.of(piece -> piece.length, piece -> piece.lines, piece -> 0));
+    source.pieces.replace(0, -1,
+      List.of(source.piece(false, 0, original.length())));
+    return source;
+  }
+
+  /** Indices of the line ends in the text, which start at the offset. */
+  private static int[] ends(CharSequence text, int offset) {
+    var count = 0;
+    for (var i = 0; i < text.length(); i++) {
+      if (text.charAt(i) == '\n') {
+        count++;
+      }
+    }
+    var ends  = new int[count];
+    var found = 0;
+    for (var i = 0; i < text.length(); i++) {
+      if (text.charAt(i) == '\n') {
+        ends[found++] = offset + i;
+      }
+    }
+    return ends;
+  }
+
+  private final String        original;
+  private final int[]         originalEnds;
+  private final StringBuilder added;
+  private int[]               addedEnds;
+  private int                 addedEndCount;
+  private final Spans<Piece>  pieces;
+  /** Piece that was found last, which is likely to be found next. */
+  private int                 cached;
+  private Piece               cachedPiece;
+  /** Index of the first character of the cached piece. */
+  private int                 cachedStart;
+  /** Number of line ends before the cached piece. */
+  private int                 cachedEnds;
+
+  private EditableSource(String name, String original, int[] originalEnds,
+    StringBuilder added, int[] addedEnds, int addedEndCount,
+    Spans<Piece> pieces) {
+    super(name);
+    this.original      = original;
+    this.originalEnds  = originalEnds;
+    this.added         = added;
+    this.addedEnds     = addedEnds;
+    this.addedEndCount = addedEndCount;
+    this.pieces        = pieces;
+  }
+
+  /**
+   * Replaces the given number of characters at the index with the text. The
+   * EOF character and the line end after it cannot be edited.
+   */
+  public Change edit(int index, int removed, String text) {
+    if (index < 0 || removed < 0 || index + removed > length() - 2) {
+      throw new IllegalArgumentException(
+        "Cannot replace %d characters at %d in a source of %d characters!"
+          .formatted(removed, index, length() - 2));
+    }
+    text = text.replace("\r", "");
+    var line         = line(index);
+    var removedLines = ends(index + removed) - ends(index);
+    // Splitting the later piece first keeps the indices of the earlier ones.
+    var last         = split(index + removed);
+    var count        = pieces.size();
+    var first        = removed == 0 ? last : split(index);
+    last += pieces.size() - count;
+    var inserted = List.<Piece>of();
+    if (!text.isEmpty()) {
+      var start = added.length();
+      added.append(text);
+      for (var end : EditableSource.ends(text, start)) {
+        if (addedEndCount == addedEnds.length) {
+          addedEnds = Arrays.copyOf(addedEnds, addedEndCount * 2);
+        }
+        addedEnds[addedEndCount++] = end;
+      }
+      inserted = List.of(piece(true, start, text.length()));
+    }
+    pieces.replace(first, last - 1, inserted);
+    cachedPiece = null;
+    return Change.of(index, removed, text.length(), line, removedLines,
+      EditableSource.ends(text, 0).length);
+  }
+
+  /**
+   * Index of the character at the line and column, which start from 1. A
+   * column after the end of its line gives the line end, and a line after
+   * the last one gives the EOF character.
+   */
+  public int index(int line, int column) {
+    var eof = length() - 2;
+    if (line > pieces.lines()) {
+      return eof;
+    }
+    var start = line <= 1 ? 0 : end(line - 1) + 1;
+    return Math.min(start + Math.max(column, 1) - 1,
+      Math.min(end(line), eof));
+  }
+
+  /** Splits the piece at the index, and gives the piece that starts at it. */
+  private int split(int index) {
+    find(index);
+    if (cachedStart == index) {
+      return cached;
+    }
+    var found  = cached;
+    var piece  = cachedPiece;
+    var before = index - cachedStart;
+    pieces.replace(found, found, List.of(
+      piece(piece.added, piece.start, before),
+      piece(piece.added, piece.start + before, piece.length - before)));
+    cachedPiece = null;
+    return found + 1;
+  }
+
+  private Piece piece(boolean added, int start, int length) {
+    var ends  = added ? addedEnds : originalEnds;
+    var count = added ? addedEndCount : originalEnds.length;
+    return new Piece(added, start, length,
+      EditableSource.below(ends, count, start + length)
+        - EditableSource.below(ends, count, start));
+  }
+
+  /** Caches the piece that has the character at the index. */
+  private void find(int index) {
+    if (cachedPiece != null && cachedStart <= index
+      && index < cachedStart + cachedPiece.length) {
+      return;
+    }
+    cached      = pieces.at(index);
+    cachedPiece = pieces.get(cached);
+    cachedStart = pieces.start(cached);
+    cachedEnds  = pieces.ends(cached);
+  }
+
+  /** Number of line ends before the index. */
+  private int ends(int index) {
+    find(index);
+    var ends  = cachedPiece.added ? addedEnds : originalEnds;
+    var count = cachedPiece.added ? addedEndCount : originalEnds.length;
+    return cachedEnds + EditableSource.below(ends, count,
+      cachedPiece.start + index - cachedStart)
+      - EditableSource.below(ends, count, cachedPiece.start);
+  }
+
+  /** Index of the line end with the count, which starts from 1. */
+  private int end(int count) {
+    var found  = pieces.line(count);
+    var piece  = pieces.get(found);
+    var ends   = piece.added ? addedEnds : originalEnds;
+    var before = EditableSource.below(ends,
+      piece.added ? addedEndCount : originalEnds.length, piece.start);
+    var end    = ends[before + count - pieces.ends(found) - 1];
+    return pieces.start(found) + end - piece.start;
+  }
+
+  /** Number of the values that are less than the bound. */
+  private static int below(int[] values, int count, int bound) {
+    var found = Arrays.binarySearch(values, 0, count, bound);
+    return found >= 0 ? found : -found - 1;
+  }
+
+  @Override
+  public int line(int index) {
+    return ends(index) + 1;
+  }
+
+  @Override
+  public int column(int index) {
+    var line = ends(index);
+    return line == 0 ? index + 1 : index - end(line);
+  }
+
+  @Override
+  public int length() {
+    return pieces.length();
+  }
+
+  @Override
+  public char at(int index) {
+    find(index);
+    var at = cachedPiece.start + index - cachedStart;
+    return cachedPiece.added ? added.charAt(at) : original.charAt(at);
+  }
+
+  @Override
+  public String sub(int first, int last) {
+    var builder = new StringBuilder(last - first + 1);
+    var index   = first;
+    while (index <= last) {
+      find(index);
+      var from = cachedPiece.start + index - cachedStart;
+      var to   = cachedPiece.start + Math.min(cachedPiece.length,
+        last + 1 - cachedStart);
+      builder.append(cachedPiece.added ? added : original, from, to);
+      index = cachedStart + cachedPiece.length;
+    }
+    return builder.toString();
+  }
+
+  /** Matches the current characters, so it must be made again after edits. */
+  @Override
+  public Matcher matcher(Pattern pattern) {
+    return pattern.matcher(new Characters());
+  }
+
+  /** Part of one of the buffers. */
+  private static final class Piece {
+    final boolean added;
+    final int     start;
+    final int     length;
+    /** Number of line ends in the piece. */
+    final int     lines;
+
+    Piece(boolean added, int start, int length, int lines) {
+      this.added  = added;
+      this.start  = start;
+      this.length = length;
+      this.lines  = lines;
+    }
+  }
+
+  /** Current characters, which patterns are matched against. */
+  private final class Characters implements CharSequence {
+    @Override
+    public int length() {
+      return EditableSource.this.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+      return at(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return start == end ? "" : sub(start, end - 1);
+    }
+
+    @Override
+    public String toString() {
+      return sub(0, length() - 1);
+    }
+  }
+}
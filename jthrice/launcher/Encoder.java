@@ -0,0 +1,96 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Writes the binary format that the results of the phases are stored in.
+ * Numbers are varints, so small ones take a byte. Each name is written once;
+ * later uses write its index instead.
+ */
+public final class Encoder {
+  /** First bytes of every stored file. */
+  static final byte[] MAGIC   = { 'T', 'H', 'R', 'C' };
+  /** Changes whenever any of the formats changes. */
+  static final int    VERSION = 1;
+
+  /** Starts a file that holds the kind of result. */
+  public static Encoder of(char kind) {
+    var encoder = new Encoder(new byte[64], new HashMap<>());
+    for (var value : MAGIC) {
+      encoder.add(value);
+    }
+    encoder.unsigned(VERSION);
+    encoder.add((byte) kind);
+    return encoder;
+  }
+
+  private byte[]                     bytes;
+  private int                        size;
+  private final Map<String, Integer> names;
+
+  private Encoder(byte[] bytes, Map<String, Integer> names) {
+    this.bytes = bytes;
+    this.names = names;
+  }
+
+  /** Writes a number that is not negative. */
+  public void unsigned(int value) {
+    while ((value & ~0x7F) != 0) {
+      add((byte) (value & 0x7F | 0x80));
+      value >>>= 7;
+    }
+    add((byte) value);
+  }
+
+  /** Writes a number in zigzag order, so small negative ones stay short. */
+  public void signed(long value) {
+    var zigzag = value << 1 ^ value >> 63;
+    while ((zigzag & ~0x7FL) != 0) {
+      add((byte) (zigzag & 0x7F | 0x80));
+      zigzag >>>= 7;
+    }
+    add((byte) zigzag);
+  }
+
+  public void bytes(byte[] value) {
+    unsigned(value.length);
+    for (var b : value) {
+      add(b);
+    }
+  }
+
+  /** Writes the name, or only its index if it was written before. */
+  public void name(String value) {
+    var index = names.get(value);
+    if (index != null) {
+      unsigned(index + 1);
+      return;
+    }
+    names.put(value, names.size());
+    unsigned(0);
+    bytes(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public byte[] toByteArray() {
+    return Arrays.copyOf(bytes, size);
+  }
+
+  public void write(Path path) throws IOException {
+    try (var out = Files.newOutputStream(path)) {
+      out.write(bytes, 0, size);
+    }
+  }
+
+  private void add(byte value) {
+    if (size == bytes.length) {
+      bytes = Arrays.copyOf(bytes, size * 2);
+    }
+    bytes[size++] = value;
+  }
+}
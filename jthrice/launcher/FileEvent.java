@@ -0,0 +1,28 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+import jdk.jfr.*;
+
+/** Flight Recorder event of compiling a file, from loading to building. */
+@Name("jthrice.File")
+@Label("File")
+@Category("Thrice")
+@Description("Compilation of a file, with the counts at its end.")
+@StackTrace(false)
+final class FileEvent extends Event {
+  @Label("File")
+  String file;
+  @Label("Size")
+  @DataAmount
+  long   bytes;
+  @Label("Tokens")
+  int    tokens;
+  @Label("Nodes")
+  int    nodes;
+  @Label("Symbols")
+  int    symbols;
+  @Label("Errors")
+  int    errors;
+}
@@ -0,0 +1,90 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+import java.util.*;
+import java.util.regex.*;
+
+/** Source whose characters are in a single string that does not change. */
+public final class FixedSource extends Source {
+  public static FixedSource of(String name, String text) {
+    return FixedSource.of(name, text, 1);
+  }
+
+  /** Creates a source whose first line is the given line of the file. */
+  public static FixedSource of(String name, String text, int line) {
+    return new FixedSource(name, Source.contents(text), line - 1);
+  }
+
+  private final String contents;
+  /** Indices where each line starts, in order. */
+  private final int[]  lines;
+  /** Number of the lines of the file that are before the text. */
+  private final int    skipped;
+
+  private FixedSource(String name, String contents, int skipped) {
+    super(name);
+    this.contents = contents;
+    this.skipped  = skipped;
+    lines         = FixedSource.lines(contents);
+  }
+
+  private static int[] lines(String contents) {
+    var count = 1;
+    for (var i = 0; i < contents.length(); i++) {
+      if (contents.charAt(i) == '\n') {
+        count++;
+      }
+    }
+    var lines = new int[count];
+    var line  = 1;
+    for (var i = 0; i < contents.length(); i++) {
+      if (contents.charAt(i) == '\n') {
+        lines[line++] = i + 1;
+      }
+    }
+    return lines;
+  }
+
+  @Override
+  public int line(int index) {
+    return skipped + local(index);
+  }
+
+  @Override
+  public int column(int index) {
+    return index - lines[local(index) - 1] + 1;
+  }
+
+  /** Line of the character at the index in the text, starting from 1. */
+  private int local(int index) {
+    var found = Arrays.binarySearch(lines, index);
+    return found >= 0 ? found + 1 : -found - 1;
+  }
+
+  @Override
+  public int length() {
+    return contents.length();
+  }
+
+  @Override
+  public char at(int index) {
+    return contents.charAt(index);
+  }
+
+  @Override
+  public String sub(int first, int last) {
+    return contents.substring(first, last + 1);
+  }
+
+  @Override
+  public Matcher matcher(Pattern pattern) {
+    return pattern.matcher(contents);
+  }
+
+  @Override
+  public boolean matches(String string, int index) {
+    return contents.startsWith(string, index);
+  }
+}
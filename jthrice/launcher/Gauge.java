@@ -0,0 +1,43 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/** Metric that goes up and down, like the number of waiting jobs. */
+public final class Gauge extends Metric {
+  public static Gauge of(String name, String help, String label) {
+    return new Gauge(name, help, label, new LongAdder());
+  }
+
+  private final LongAdder adder;
+
+  private Gauge(String name, String help, String label, LongAdder adder) {
+    super(name, help, label);
+    this.adder = adder;
+  }
+
+  public void increment() {
+    adder.increment();
+  }
+
+  public void decrement() {
+    adder.decrement();
+  }
+
+  public long value() {
+    return adder.sum();
+  }
+
+  @Override
+  void write(StringBuilder out) {
+    sample(out, "", null, value());
+  }
+
+  @Override
+  void attributes(Map<String, Long> attributes) {
+    attributes.put(attribute(""), value());
+  }
+}
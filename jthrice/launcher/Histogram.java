@@ -0,0 +1,72 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/** Metric that counts the recorded values under each of the bounds. */
+public final class Histogram extends Metric {
+  /**
+   * Values are recorded in a fine unit like nanoseconds, and are divided by
+   * the unit like 1e9 to give the base unit that Prometheus expects.
+   */
+  public static Histogram of(String name, String help, String label,
+    long[] bounds, double unit) {
+    var buckets = new LongAdder[bounds.length + 1];
+    for (var i = 0; i < buckets.length; i++) {
+      buckets[i] = new LongAdder();
+    }
+    return new Histogram(name, help, label, bounds, unit, buckets,
+      new LongAdder());
+  }
+
+  private final long[]      bounds;
+  private final double      unit;
+  private final LongAdder[] buckets;
+  private final LongAdder   sum;
+
+  private Histogram(String name, String help, String label, long[] bounds,
+    double unit, LongAdder[] buckets, LongAdder sum) {
+    super(name, help, label);
+    this.bounds  = bounds;
+    this.unit    = unit;
+    this.buckets = buckets;
+    this.sum     = sum;
+  }
+
+  public void record(long value) {
+    var bucket = Arrays.binarySearch(bounds, value);
+    buckets[bucket >= 0 ? bucket : -bucket - 1].increment();
+    sum.add(value);
+  }
+
+  public long count() {
+    var count = 0L;
+    for (var bucket : buckets) {
+      count += bucket.sum();
+    }
+    return count;
+  }
+
+  @Override
+  void write(StringBuilder out) {
+    // Buckets are cumulative in the Prometheus format.
+    var count = 0L;
+    for (var i = 0; i < buckets.length; i++) {
+      count += buckets[i].sum();
+      var bound = i < bounds.length ? Double.toString(bounds[i] / unit)
+        : "+Inf";
+      sample(out, "_bucket", "le=\"" + bound + '"', count);
+    }
+    sample(out, "_sum", null, sum.sum() / unit);
+    sample(out, "_count", null, count);
+  }
+
+  @Override
+  void attributes(Map<String, Long> attributes) {
+    attributes.put(attribute("_count"), count());
+    attributes.put(attribute("_sum"), sum.sum());
+  }
+}
@@ -3,12 +3,23 @@
 
 package jthrice.launcher;
 
-import java.util.stream.*;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
 
+import javax.management.*;
+
+import com.sun.net.httpserver.*;
+
+import jthrice.analyzer.*;
+import jthrice.generator.*;
 import jthrice.lexer.*;
 import jthrice.parser.*;
 
 public final class Launcher {
+  private static final Path BUILD = Path.of("build");
+
   private static void printArguments(String[] arguments) {
     System.out.println("Thrice Java Compiler v.0.0.1");
     System.out.print("Java Version: ");
@@ -20,84 +31,299 @@ public final class Launcher {
     System.out.println();
   }
 
-  private static void print(Node node) {
-    switch (node) {
-      case Root root:
+  private static void print(Root root) {
+    for (var statement : root.statements) {
+      switch (statement) {
+        case Definition definition:
+          System.out.printf("%s: ", definition.name);
+          print(definition.tree, definition.type);
+          System.out.print(" = ");
+          print(definition.tree, definition.value);
+          System.out.print(';');
+          break;
+      }
+      System.out.println();
+    }
+  }
+
+  /**
+   * Prints the node with a stack of the pending parts instead of recursion,
+   * so nesting depth does not matter. Integers on the stack are nodes and
+   * the rest is printed as is.
+   */
+  private static void print(Tree tree, int node) {
+    var pending = new ArrayDeque<Object>();
+    var parts   = new ArrayList<Object>();
+    pending.push(node);
+    while (!pending.isEmpty()) {
+      var part = pending.pop();
+      if (!(part instanceof Integer current)) {
+        System.out.print(part);
+        continue;
+      }
+      parts.clear();
+      switch (tree.operator(current)) {
+        case NullaryOperator nullary:
+          parts.add(tree.token(current));
+          break;
+        case PrenaryOperator prenary:
+          parts.add('[');
+          parts.add(tree.token(current));
+          parts.add(tree.operand(current, 0));
+          parts.add(']');
+          break;
+        case PostaryOperator postary:
+          parts.add('[');
+          parts.add(tree.operand(current, 0));
+          parts.add(tree.token(current));
+          parts.add(']');
+          break;
+        case CirnaryOperator cirnary:
+          parts.add(tree.token(current));
+          parts.add(tree.operand(current, 0));
+          parts.add(tree.right(current));
+          break;
+        case BinaryOperator binary:
+          parts.add('[');
+          parts.add(tree.operand(current, 0));
+          parts.add(tree.token(current));
+          parts.add(tree.operand(current, 1));
+          parts.add(']');
+          break;
+        case VariaryOperator variary:
+          parts.add('[');
+          parts.add(tree.operand(current, 0));
+          parts.add(tree.token(current));
+          var operands = tree.operands(current);
+          for (var i = 1; i < operands - 1; i++) {
+            parts.add(tree.operand(current, i));
+            parts.add("%s ".formatted(tree.between(current, i)));
+          }
+          if (operands > 1) {
+            parts.add(tree.operand(current, operands - 1));
+          }
+          parts.add(tree.right(current));
+          parts.add(']');
+          break;
+      }
+      for (var i = parts.size() - 1; i >= 0; i--) {
+        pending.push(parts.get(i));
+      }
+    }
+  }
+
+  public static void compile(Options options, Builder builder,
+    Source source) {
+    var timing = Timing.of(Resolution.of(source.name()), false, null);
+    timing.start();
+    Launcher.compile(options, builder, source, timing);
+  }
+
+  private static void compile(Options options, Builder builder,
+    Source source, Timing timing) {
+    var solution = Launcher.analyze(options, source, timing);
+    if (solution == null) {
+      Launcher.finish(options, timing);
+      return;
+    }
+    Launcher.generate(options, builder, solution, timing);
+  }
+
+  /**
+   * Optimizes and generates the solution, then finishes after the build.
+   * Gives the build, which completes after the file is finished.
+   */
+  private static CompletableFuture<Void> generate(Options options,
+    Builder builder, Solution solution, Timing timing) {
+    var resolution = timing.resolution;
+    var program    = options.optimizer.optimize(resolution, solution);
+    timing.mark(Timing.OPTIMIZE);
+    var build = options.backend.generate(resolution, BUILD, program, builder);
+    timing.mark(Timing.GENERATE);
+    return build.thenRun(() -> {
+      timing.await(Timing.NATIVE);
+      Launcher.finish(options, timing);
+    });
+  }
+
+  /** File that keeps the summary of the file for incremental builds. */
+  private static Path summary(String name) {
+    return BUILD.resolve(name + ".summary");
+  }
+
+  /**
+   * Analyzes the source, or gives null if it is not valid. The solution does
+   * not refer to the tokens or the tree, so they can be collected before the
+   * code is generated.
+   */
+  private static Solution analyze(Options options, Source source,
+    Timing timing) {
+    var root = Launcher.parse(source, timing);
+    if (root == null) {
+      return null;
+    }
+    var solution = Analyzer.analyze(timing.resolution, root,
+      options.interner());
+    if (solution != null) {
+      timing.symbols = solution.symbols.size();
+    }
+    timing.mark(Timing.ANALYZE);
+    return solution;
+  }
+
+  /** Lexes, parses and prints the source, or gives null if it is invalid. */
+  private static Root parse(Source source, Timing timing) {
+    var resolution = timing.resolution;
+    var lex        = Lexer.lex(resolution, source);
+    timing.tokens = lex.size();
+    timing.mark(Timing.LEX);
+    var root = Parser.parse(resolution, lex);
+    if (root != null && timing.recording()) {
+      timing.nodes = Launcher.count(root);
+    }
+    timing.mark(Timing.PARSE);
+    if (root == null) {
+      return null;
+    }
+    print(root);
+    timing.mark(Timing.PRINT);
+    return root;
+  }
+
+  /**
+   * Compiles the files as a module, where each file can access the
+   * definitions of the others. Files are parsed in parallel, and each one is
+   * analyzed as soon as the files it accesses are, so the files that do not
+   * depend on each other are analyzed at the same time. Files that depend on
+   * each other in a cycle are not analyzed.
+   */
+  private static void module(Options options, Builder builder) {
+    var names    = options.names.stream().distinct().toList();
+    var schedule = new Schedule(options, builder);
+    names.parallelStream().forEach(schedule::load);
+    // Earlier names own the names that are defined in more than one file.
+    for (var name : names) {
+      schedule.define(name);
+    }
+    // Cycles are found before any analysis starts on the other threads.
+    for (var name : names) {
+      if (schedule.timings.containsKey(name)) {
+        schedule.visit(name);
+      }
+    }
+    for (var name : names) {
+      if (schedule.timings.containsKey(name)) {
+        schedule.analysis(name);
+      }
+    }
+    CompletableFuture.allOf(schedule.analyses.values()
+      .toArray(CompletableFuture[]::new)).join();
+  }
+
+  /**
+   * Compiles the file a part at a time, so only the current part and the
+   * summaries of the earlier definitions are kept in memory. Each definition
+   * is optimized and generated on its own as soon as it is analyzed. After a
+   * failure the rest of the file is still analyzed for its messages, but no
+   * more code is generated and the code is not compiled. Parser recovers
+   * from a syntax error within the part, so it might skip less than it does
+   * in the whole file.
+   */
+  private static void stream(Options options, Builder builder, String name,
+    Timing timing) throws IOException {
+    var resolution = timing.resolution;
+    var generator  = StreamGenerator.of(resolution, BUILD);
+    if (generator == null) {
+      Launcher.finish(options, timing);
+      return;
+    }
+    var scope = Scope.of(options.interner());
+    var valid = true;
+    try (var chunker = Chunker.of(name)) {
+      for (var source = chunker.next(); source != null; source = chunker
+        .next()) {
+        timing.bytes += source.length();
+        timing.mark(Timing.LOAD);
+        var lex = Lexer.lex(resolution, source);
+        timing.tokens += lex.size();
+        timing.mark(Timing.LEX);
+        var root = Parser.parse(resolution, lex);
+        if (root != null && timing.recording()) {
+          timing.nodes += Launcher.count(root);
+        }
+        timing.mark(Timing.PARSE);
+        if (root == null) {
+          valid = false;
+          continue;
+        }
+        print(root);
+        timing.mark(Timing.PRINT);
         for (var statement : root.statements) {
-          print(statement);
-        }
-        break;
-      case Statement statement:
-        switch (statement) {
-          case Definition definition:
-            System.out.printf("%s: ", definition.name);
-            print(definition.type);
-            System.out.print(" = ");
-            print(definition.value);
-            System.out.print(';');
-            break;
-        }
-        System.out.println();
-        break;
-      case Expression expression:
-        switch (expression) {
-          case NullaryExpression nullary:
-            System.out.print(nullary.operator);
-            break;
-          case PrenaryExpression prenary:
-            System.out.print('[');
-            System.out.print(prenary.operator);
-            print(prenary.operand);
-            System.out.print(']');
-            break;
-          case PostaryExpression postary:
-            System.out.print('[');
-            print(postary.operand);
-            System.out.print(postary.operator);
-            System.out.print(']');
-            break;
-          case CirnaryExpression cirnary:
-            System.out.print(cirnary.left);
-            print(cirnary.operand);
-            System.out.print(cirnary.right);
-            break;
-          case BinaryExpression binary:
-            System.out.print('[');
-            print(binary.left);
-            System.out.print(binary.operator);
-            print(binary.right);
-            System.out.print(']');
-            break;
-          case VariaryExpression polinary:
-            System.out.print('[');
-            print(polinary.first);
-            System.out.print(polinary.left);
-            for (var i = 0; i < polinary.remaining.size() - 1; i++) {
-              print(polinary.remaining.get(i));
-              System.out.printf("%s ", polinary.between.get(i));
-            }
-            if (!polinary.remaining.isEmpty()) {
-              print(polinary.remaining.get(polinary.remaining.size() - 1));
+          switch (statement) {
+            case Definition definition -> {
+              var solution = scope.analyze(resolution, definition);
+              timing.mark(Timing.ANALYZE);
+              valid = valid && solution != null;
+              if (valid) {
+                var program = options.optimizer.optimize(resolution,
+                  solution);
+                timing.mark(Timing.OPTIMIZE);
+                generator.generate(program);
+                timing.mark(Timing.GENERATE);
+              }
             }
-            System.out.print(polinary.right);
-            System.out.print(']');
-            break;
+          }
         }
-        break;
+      }
     }
+    timing.symbols = scope.size();
+    valid = scope.finish(resolution) && valid;
+    timing.mark(Timing.ANALYZE);
+    var build = generator.finish(builder, valid);
+    timing.mark(Timing.GENERATE);
+    build.thenRun(() -> {
+      timing.await(Timing.NATIVE);
+      Launcher.finish(options, timing);
+    });
   }
 
-  public static void compile(Source source) {
-    var resolution = Resolution.of(source.name());
-    var lex        = Lexer.lex(resolution, source);
-    var root       = Parser.parse(resolution, lex);
-    print(root);
-    resolution.report();
+  /** Number of nodes in the tree, counted without recursion. */
+  private static int count(Root root) {
+    var count = 1;
+    for (var statement : root.statements) {
+      switch (statement) {
+        case Definition definition -> count += 1
+          + definition.tree.count(definition.type)
+          + definition.tree.count(definition.value);
+      }
+    }
+    return count;
   }
 
-  public static void process(String name) {
+  private static void finish(Options options, Timing timing) {
+    timing.resolution.report();
+    timing.end();
+    Metrics.FILES.add(1);
+    if (timing.enabled) {
+      timing.report();
+      options.timings.add(timing);
+    }
+  }
+
+  public static void process(Options options, Builder builder,
+    String name) {
+    var timing = Timing.of(Resolution.of(name), options.slowest > 0,
+      options.trace);
+    timing.start();
     try {
-      Launcher.compile(Source.of(name));
+      if (options.stream) {
+        Launcher.stream(options, builder, name, timing);
+        return;
+      }
+      var source = Source.of(name);
+      timing.bytes = source.length();
+      timing.mark(Timing.LOAD);
+      Launcher.compile(options, builder, source, timing);
     } catch (Exception e) {
       System.out.printf("Could not process %s!%nError: %s%n", name,
         e.getLocalizedMessage());
@@ -105,14 +331,329 @@ public final class Launcher {
     }
   }
 
+  /** Compiles the names that are read from the input, one on each line. */
+  private static void serve(Options options, Builder builder) {
+    var pool = ForkJoinPool.commonPool();
+    try (var input = new BufferedReader(new InputStreamReader(System.in))) {
+      for (var line = input.readLine(); line != null; line = input
+        .readLine()) {
+        var name = line.strip();
+        if (!name.isEmpty()) {
+          pool.execute(() -> Launcher.process(options, builder, name));
+        }
+      }
+    } catch (IOException e) {
+      System.out.printf("Could not read the input!%nError: %s%n",
+        e.getLocalizedMessage());
+    }
+    pool.awaitQuiescence(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+  }
+
   public static void main(String[] arguments) {
     Launcher.printArguments(arguments);
-    if (arguments.length < 1) {
+    var options = Options.of(arguments);
+    if (options == null) {
+      return;
+    }
+    if (options.names.isEmpty() && !options.daemon) {
       System.out.println("Provide a Thrice file!");
     }
-    Stream.of(arguments).parallel().forEach(Launcher::process);
+    HttpServer server = null;
+    try {
+      if (options.daemon || options.port != 0) {
+        Metrics.register();
+      }
+      if (options.port != 0) {
+        server = Metrics.serve(options.port);
+        System.out.printf("Serving the metrics at `http://%s:%d/metrics`.%n",
+          server.getAddress().getHostString(), server.getAddress().getPort());
+      }
+    } catch (IOException | JMException e) {
+      System.out.printf("Could not expose the metrics!%nError: %s%n",
+        e.getLocalizedMessage());
+    }
+    try (var builder = Builder.of(options.jobs, options.profile,
+      options.emit, options.run, options.trace)) {
+      if (options.module) {
+        Launcher.module(options, builder);
+      } else {
+        options.names.parallelStream()
+          .forEach(name -> Launcher.process(options, builder, name));
+      }
+      if (options.daemon) {
+        Launcher.serve(options, builder);
+      }
+    }
+    if (server != null) {
+      server.stop(0);
+    }
+    if (options.slowest > 0) {
+      Timing.summarize(options.timings, options.slowest);
+    }
+    if (options.trace != null) {
+      try {
+        options.trace.write();
+        System.out.printf("Wrote the trace to `%s`.%n", options.trace.path);
+      } catch (IOException e) {
+        System.out.printf("Could not write the trace to `%s`!%nError: %s%n",
+          options.trace.path, e.getLocalizedMessage());
+      }
+    }
   }
 
   private Launcher() {
   }
+
+  /**
+   * Analyses of the files of a module, which wait for their dependencies.
+   * Incremental builds keep the summary of each file that was built. A file
+   * whose source is the same as its summary's is not parsed; after its
+   * dependencies, it is loaded from the summary if it would import the same
+   * names from the same files, and those files have the same summaries.
+   */
+  private static final class Schedule {
+    final Options                              options;
+    final Builder                              builder;
+    final Exports                              exports;
+    final Map<String, Timing>                  timings;
+    final Map<String, Root>                    roots;
+    /** Sources of the files that have summaries, which were not parsed. */
+    final Map<String, Source>                  sources;
+    final Map<String, Summary>                 summaries;
+    /** Hashes of the sources that were read. */
+    final Map<String, Long>                    hashes;
+    /** Hashes of the summaries of the files that were analyzed or loaded. */
+    final Map<String, Long>                    interfaces;
+    final Map<String, CompletableFuture<Void>> analyses;
+    /** Files whose dependencies are being visited, in order. */
+    final List<String>                         path;
+    final Set<String>                          visited;
+    /**
+     * Files that depend on themselves through other files, which is not
+     * changed after the analyses start.
+     */
+    final Set<String>                          cyclic;
+
+    Schedule(Options options, Builder builder) {
+      this.options = options;
+      this.builder = builder;
+      exports      = Exports.of();
+      timings      = new ConcurrentHashMap<>();
+      roots        = new ConcurrentHashMap<>();
+      sources      = new ConcurrentHashMap<>();
+      summaries    = new ConcurrentHashMap<>();
+      hashes       = new ConcurrentHashMap<>();
+      interfaces   = new ConcurrentHashMap<>();
+      analyses     = new HashMap<>();
+      path         = new ArrayList<>();
+      visited      = new HashSet<>();
+      cyclic       = new HashSet<>();
+    }
+
+    /** Reads the file, and parses it unless its summary is up to date. */
+    void load(String name) {
+      var timing = Timing.of(Resolution.of(name), options.slowest > 0,
+        options.trace);
+      timing.start();
+      try {
+        var source = Source.of(name);
+        timing.bytes = source.length();
+        if (options.incremental) {
+          var hash    = source.hash();
+          var summary = Summary.read(Launcher.summary(name));
+          hashes.put(name, hash);
+          if (summary != null && summary.source == hash
+            && summary.flags.equals(options.flags())) {
+            timing.mark(Timing.LOAD);
+            sources.put(name, source);
+            summaries.put(name, summary);
+            timings.put(name, timing);
+            return;
+          }
+        }
+        timing.mark(Timing.LOAD);
+        var root = Launcher.parse(source, timing);
+        if (root == null) {
+          Launcher.finish(options, timing);
+          return;
+        }
+        roots.put(name, root);
+        timings.put(name, timing);
+      } catch (Exception e) {
+        System.out.printf("Could not process %s!%nError: %s%n", name,
+          e.getLocalizedMessage());
+      }
+    }
+
+    /** Adds the definitions of the file if it was loaded. */
+    void define(String name) {
+      var root = roots.get(name);
+      if (root != null) {
+        exports.define(name, root);
+        return;
+      }
+      var summary = summaries.get(name);
+      if (summary != null) {
+        exports.define(name, summary.solution(), summary.accessed);
+      }
+    }
+
+    /** Finds the cycles that the file and its dependencies are in. */
+    void visit(String name) {
+      var index = path.indexOf(name);
+      if (index != -1) {
+        cyclic.addAll(path.subList(index, path.size()));
+        return;
+      }
+      if (!visited.add(name)) {
+        return;
+      }
+      path.add(name);
+      for (var dependency : exports.dependencies(name)) {
+        visit(dependency);
+      }
+      path.remove(path.size() - 1);
+    }
+
+    /**
+     * Analysis of the file, which starts after the ones it depends on. Files
+     * in a cycle fail without waiting. A failure is reported for the file,
+     * and does not stop its dependents from being analyzed.
+     */
+    CompletableFuture<Void> analysis(String name) {
+      var analysis = analyses.get(name);
+      if (analysis != null) {
+        return analysis;
+      }
+      if (cyclic.contains(name)) {
+        analysis = CompletableFuture.runAsync(() -> fail(name));
+      } else {
+        var dependencies = new ArrayList<CompletableFuture<Void>>();
+        for (var dependency : exports.dependencies(name)) {
+          dependencies.add(analysis(dependency));
+        }
+        analysis = CompletableFuture.allOf(dependencies
+          .toArray(CompletableFuture[]::new))
+          .thenRunAsync(() -> analyze(name));
+      }
+      analysis = analysis.exceptionally(thrown -> {
+        var cause = thrown instanceof CompletionException
+          ? thrown.getCause() : thrown;
+        System.out.printf("Could not process %s!%nError: %s%n", name, cause);
+        return null;
+      });
+      analyses.put(name, analysis);
+      return analysis;
+    }
+
+    private void analyze(String name) {
+      var timing = timings.get(name);
+      timing.resume();
+      try {
+        if (current(name)) {
+          exports.load(name);
+          interfaces.put(name, summaries.get(name).hash);
+          timing.resolution.info("LAUNCHER", "Build is up to date.");
+          timing.mark(Timing.ANALYZE);
+          Launcher.finish(options, timing);
+          return;
+        }
+        var root = roots.get(name);
+        if (root == null) {
+          root = Launcher.parse(sources.get(name), timing);
+          if (root == null) {
+            Launcher.finish(options, timing);
+            return;
+          }
+        }
+        if (options.incremental) {
+          Files.deleteIfExists(Launcher.summary(name));
+        }
+        var solution = exports.analyze(timing.resolution, root,
+          options.interner());
+        if (solution != null) {
+          timing.symbols = solution.symbols.size();
+        }
+        timing.mark(Timing.ANALYZE);
+        if (solution == null) {
+          Launcher.finish(options, timing);
+          return;
+        }
+        var summary = options.incremental ? summarize(name, solution) : null;
+        var build   = Launcher.generate(options, builder, solution, timing);
+        if (summary != null) {
+          build.thenRun(() -> write(name, summary, timing.resolution));
+        }
+      } catch (Exception e) {
+        System.out.printf("Could not process %s!%nError: %s%n", name,
+          e.getLocalizedMessage());
+        e.printStackTrace();
+      }
+    }
+
+    /**
+     * Whether the summary of the file can be loaded instead of analyzing it,
+     * which needs the files it imports from to be loaded or analyzed.
+     */
+    private boolean current(String name) {
+      var summary = summaries.get(name);
+      if (summary == null || !exports.owns(name)
+        || !exports.imports(name).equals(summary.imports)) {
+        return false;
+      }
+      for (var dependency : summary.dependencies.entrySet()) {
+        if (!dependency.getValue()
+          .equals(interfaces.get(dependency.getKey()))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /** Summary of the analyzed file, whose hash the dependents can see. */
+    private Summary summarize(String name, Solution solution) {
+      var dependencies = new TreeMap<String, Long>();
+      for (var dependency : exports.dependencies(name)) {
+        var hash = interfaces.get(dependency);
+        if (hash == null) {
+          return null;
+        }
+        dependencies.put(dependency, hash);
+      }
+      var summary = Summary.of(hashes.get(name), options.flags(),
+        exports.accessed(name), exports.imports(name), dependencies,
+        solution);
+      interfaces.put(name, summary.hash);
+      return summary;
+    }
+
+    /** Writes the summary if the file was built without errors. */
+    private void write(String name, Summary summary, Resolution resolution) {
+      if (resolution.errors() != 0) {
+        return;
+      }
+      try {
+        summary.write(Launcher.summary(name));
+      } catch (IOException e) {
+        System.out.printf("Could not write the summary of %s!%nError: %s%n",
+          name, e.getLocalizedMessage());
+      }
+    }
+
+    private void fail(String name) {
+      var timing = timings.get(name);
+      timing.resume();
+      var cycle = new ArrayList<String>();
+      for (var other : cyclic) {
+        if (!other.equals(name)
+          && exports.dependencies(name).contains(other)) {
+          cycle.add(other);
+        }
+      }
+      timing.resolution.error("LAUNCHER",
+        "File depends on itself through %s!".formatted(cycle));
+      timing.mark(Timing.ANALYZE);
+      Launcher.finish(options, timing);
+    }
+  }
 }
@@ -8,17 +8,8 @@ public final class Location {
     if (!source.exists(index) || source.at(index) == '\n') {
       return null;
     }
-    var line   = 1;
-    var column = 1;
-    for (var i = 0; i < index; i++) {
-      if (source.at(i) == '\n') {
-        line++;
-        column = 1;
-      } else {
-        column++;
-      }
-    }
-    return new Location(source, index, line, column);
+    return new Location(source, index, source.line(index),
+      source.column(index));
   }
 
   private final Source source;
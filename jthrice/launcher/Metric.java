@@ -0,0 +1,63 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+import java.util.*;
+
+/**
+ * Value that is recorded while compiling and read by the monitoring. Values
+ * are kept in striped adders, so threads that record at the same time do not
+ * contend.
+ */
+public sealed abstract class Metric permits Counter, Gauge, Histogram {
+  /** Name in the Prometheus format, without the label. */
+  public final String name;
+  public final String help;
+  /** Label in the Prometheus format, or null. */
+  public final String label;
+
+  protected Metric(String name, String help, String label) {
+    this.name  = name;
+    this.help  = help;
+    this.label = label;
+  }
+
+  /** Name of the metric and its label, which is unique in the registry. */
+  public String key() {
+    return label == null ? name : name + '{' + label + '}';
+  }
+
+  /** Appends the samples in the Prometheus text format. */
+  abstract void write(StringBuilder out);
+
+  /** Puts the samples as attributes of the management bean. */
+  abstract void attributes(Map<String, Long> attributes);
+
+  /** Name of the attribute of a sample, without the characters of labels. */
+  String attribute(String suffix) {
+    var attribute = name + suffix;
+    return label == null ? attribute
+      : attribute + '_' + label.replaceAll("[^A-Za-z0-9]+", "_")
+        .replaceAll("_$", "");
+  }
+
+  /** Sample line in the Prometheus text format. */
+  void sample(StringBuilder out, String suffix, String extra, Object value) {
+    out.append(name).append(suffix);
+    if (label != null || extra != null) {
+      out.append('{');
+      if (label != null) {
+        out.append(label);
+      }
+      if (label != null && extra != null) {
+        out.append(',');
+      }
+      if (extra != null) {
+        out.append(extra);
+      }
+      out.append('}');
+    }
+    out.append(' ').append(value).append('\n');
+  }
+}
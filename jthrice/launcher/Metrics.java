@@ -0,0 +1,176 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+import java.io.*;
+import java.lang.management.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import javax.management.*;
+
+import com.sun.net.httpserver.*;
+
+/**
+ * Metrics of all the compilations in this process. They are exposed as the
+ * `jthrice:type=Metrics` management bean, and in the Prometheus text format
+ * at `/metrics` on a local port.
+ */
+public final class Metrics {
+  /** Metrics by their keys, in order so samples of a name are together. */
+  private static final Map<String, Metric> METRICS =
+    new ConcurrentSkipListMap<>();
+
+  public static final Counter   FILES    = Metrics.register(Counter.of(
+    "jthrice_files_total", "Files that were compiled.", null));
+  public static final Counter   TOKENS   = Metrics.register(Counter.of(
+    "jthrice_tokens_total", "Tokens that were lexed.", null));
+  public static final Counter   PARSED   = Metrics.register(Counter.of(
+    "jthrice_parsed_definitions_total", "Definitions that were parsed.",
+    null));
+  public static final Counter   ANALYZED = Metrics.register(Counter.of(
+    "jthrice_analyzed_definitions_total", "Definitions that were analyzed.",
+    null));
+  public static final Gauge     QUEUE    = Metrics.register(Gauge.of(
+    "jthrice_native_queue_depth", "Native processes waiting for a job.",
+    null));
+  public static final Histogram NATIVE   = Metrics.register(Histogram.of(
+    "jthrice_native_seconds", "Time that native processes took.", null,
+    new long[] { 10_000_000, 25_000_000, 50_000_000, 100_000_000,
+      250_000_000, 500_000_000, 1_000_000_000, 2_500_000_000L,
+      5_000_000_000L, 10_000_000_000L },
+    1e9));
+  public static final String    BEAN     = "jthrice:type=Metrics";
+
+  private static <T extends Metric> T register(T metric) {
+    METRICS.put(metric.key(), metric);
+    return metric;
+  }
+
+  /** Errors that were reported by the author, like the parser. */
+  public static Counter errors(String author) {
+    var label = "author=\"%s\"".formatted(author);
+    return (Counter) METRICS.computeIfAbsent(
+      "jthrice_errors_total{%s}".formatted(label),
+      key -> Counter.of("jthrice_errors_total", "Errors that were reported.",
+        label));
+  }
+
+  /** All the metrics in the Prometheus text format. */
+  public static String prometheus() {
+    var out  = new StringBuilder();
+    var last = "";
+    for (var metric : METRICS.values()) {
+      if (!metric.name.equals(last)) {
+        last = metric.name;
+        out.append("# HELP ").append(metric.name).append(' ')
+          .append(metric.help).append('\n');
+        out.append("# TYPE ").append(metric.name).append(' ')
+          .append(switch (metric) {
+            case Counter counter -> "counter";
+            case Gauge gauge -> "gauge";
+            case Histogram histogram -> "histogram";
+          }).append('\n');
+      }
+      metric.write(out);
+    }
+    return out.toString();
+  }
+
+  /** Values of all the samples, by the names of their attributes. */
+  public static Map<String, Long> attributes() {
+    var attributes = new TreeMap<String, Long>();
+    for (var metric : METRICS.values()) {
+      metric.attributes(attributes);
+    }
+    return attributes;
+  }
+
+  /** Registers the management bean, unless it is already registered. */
+  static void register() throws JMException {
+    var server = ManagementFactory.getPlatformMBeanServer();
+    var name   = new ObjectName(BEAN);
+    if (!server.isRegistered(name)) {
+      server.registerMBean(new Bean(), name);
+    }
+  }
+
+  /** Starts serving the metrics on the port of the loopback address. */
+  static HttpServer serve(int port) throws IOException {
+    var server = HttpServer.create(
+      new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    server.createContext("/metrics", exchange -> {
+      var body = Metrics.prometheus().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type",
+        "text/plain; version=0.0.4; charset=utf-8");
+      exchange.sendResponseHeaders(200, body.length);
+      try (var out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.start();
+    return server;
+  }
+
+  /** Read-only bean whose attributes are the samples of the metrics. */
+  private static final class Bean implements DynamicMBean {
+    @Override
+    public Object getAttribute(String attribute)
+      throws AttributeNotFoundException {
+      var value = Metrics.attributes().get(attribute);
+      if (value == null) {
+        throw new AttributeNotFoundException(attribute);
+      }
+      return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+      var attributes = Metrics.attributes();
+      var list       = new AttributeList();
+      for (var name : names) {
+        if (attributes.containsKey(name)) {
+          list.add(new Attribute(name, attributes.get(name)));
+        }
+      }
+      return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute)
+      throws AttributeNotFoundException {
+      throw new AttributeNotFoundException("Metrics cannot be set!");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+      return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String action, Object[] parameters,
+      String[] signature) throws ReflectionException {
+      throw new ReflectionException(
+        new NoSuchMethodException(action), "Metrics have no operations!");
+    }
+
+    /** Errors are counted by author, so attributes are added over time. */
+    @Override
+    public MBeanInfo getMBeanInfo() {
+      var attributes = new ArrayList<MBeanAttributeInfo>();
+      for (var name : Metrics.attributes().keySet()) {
+        attributes.add(new MBeanAttributeInfo(name, "long", name, true, false,
+          false));
+      }
+      return new MBeanInfo(Metrics.class.getName(),
+        "Metrics of the Thrice compiler.",
+        attributes.toArray(MBeanAttributeInfo[]::new), null, null, null);
+    }
+  }
+
+  private Metrics() {
+  }
+}
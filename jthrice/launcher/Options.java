@@ -0,0 +1,247 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import jthrice.analyzer.*;
+import jthrice.generator.*;
+import jthrice.optimizer.*;
+
+/** Flags and source names given to the launcher. */
+public final class Options {
+  /** Number of the slowest files that are summarized by default. */
+  private static final int SLOWEST = 10;
+
+  public static Options of(String[] arguments) {
+    var options = new Options(arguments, new ArrayList<>());
+    return options.parse() ? options : null;
+  }
+
+  private final String[] arguments;
+  final List<String>     names;
+
+  private int   index;
+  int           jobs    = Runtime.getRuntime().availableProcessors();
+  Profile       profile = Profile.DEBUG;
+  boolean       emit;
+  boolean       run;
+  Backend       backend = Backend.C;
+  List<Pass>    passes  = Optimizer.DEFAULT;
+  boolean       relaxed;
+  String        format;
+  boolean       statistics;
+  /** Number of the slowest files to summarize, or 0 to not time phases. */
+  int           slowest;
+  Queue<Timing> timings = new ConcurrentLinkedQueue<>();
+  Trace         trace;
+  /** Whether more names are read from the input until it ends. */
+  boolean       daemon;
+  /** Port that the metrics are served on, or 0 to not serve them. */
+  int           port;
+  /** Whether the files are compiled a part at a time. */
+  boolean       stream;
+  /** Whether equal evaluations of a file are made once and shared. */
+  boolean       share;
+  /** Whether the files can access the definitions of each other. */
+  boolean       module;
+  /** Whether unchanged files of a module are loaded from their summaries. */
+  boolean       incremental;
+  Optimizer     optimizer;
+
+  private Options(String[] arguments, List<String> names) {
+    this.arguments = arguments;
+    this.names     = names;
+  }
+
+  private boolean parse() {
+    for (; index < arguments.length; index++) {
+      var argument = arguments[index];
+      if (takes("-j") || argument.matches("-j[0-9]+")) {
+        var value = value("-j");
+        if (value == null) {
+          return false;
+        }
+        try {
+          jobs = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+          jobs = 0;
+        }
+        if (jobs < 1) {
+          System.out.printf("Invalid number of jobs `%s`!%n", value);
+          return false;
+        }
+      } else if (takes("--profile")) {
+        var value = value("--profile");
+        if (value == null) {
+          return false;
+        }
+        profile = Profile.of(value);
+        if (profile == null) {
+          System.out.printf("Unknown profile `%s`! Choose one of %s.%n", value,
+            Arrays.toString(Profile.PROFILES));
+          return false;
+        }
+      } else if (takes("--backend")) {
+        var value = value("--backend");
+        if (value == null) {
+          return false;
+        }
+        backend = Backend.of(value);
+        if (backend == null) {
+          System.out.printf("Unknown backend `%s`! Choose one of %s.%n", value,
+            Arrays.toString(Backend.BACKENDS));
+          return false;
+        }
+      } else if (takes("--passes")) {
+        var value = value("--passes");
+        if (value == null) {
+          return false;
+        }
+        passes = new ArrayList<>();
+        for (var name : value.split(",")) {
+          if (name.isEmpty()) {
+            continue;
+          }
+          var pass = Pass.of(name);
+          if (pass == null) {
+            System.out.printf("Unknown pass `%s`! Choose from %s.%n", name,
+              Arrays.toString(Pass.PASSES));
+            return false;
+          }
+          passes.add(pass);
+        }
+      } else if (argument.equals("--print-ir")) {
+        format = Printer.FORMATS[0];
+      } else if (argument.startsWith("--print-ir=")) {
+        format = value("--print-ir");
+        if (!Arrays.asList(Printer.FORMATS).contains(format)) {
+          System.out.printf("Unknown format `%s`! Choose one of %s.%n", format,
+            Arrays.toString(Printer.FORMATS));
+          return false;
+        }
+      } else if (argument.equals("--relaxed-fp")) {
+        relaxed = true;
+      } else if (argument.equals("--stats")) {
+        statistics = true;
+      } else if (argument.equals("--time-phases")) {
+        slowest = SLOWEST;
+      } else if (argument.startsWith("--time-phases=")) {
+        var value = value("--time-phases");
+        try {
+          slowest = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+          slowest = 0;
+        }
+        if (slowest < 1) {
+          System.out.printf("Invalid number of files `%s`!%n", value);
+          return false;
+        }
+      } else if (takes("--trace")) {
+        var value = value("--trace");
+        if (value == null) {
+          return false;
+        }
+        trace = Trace.of(Path.of(value));
+      } else if (argument.equals("--daemon")) {
+        daemon = true;
+      } else if (takes("--metrics-port")) {
+        var value = value("--metrics-port");
+        if (value == null) {
+          return false;
+        }
+        try {
+          port = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+          port = 0;
+        }
+        if (port < 1 || port > 65535) {
+          System.out.printf("Invalid port `%s`!%n", value);
+          return false;
+        }
+      } else if (argument.equals("--emit-only")) {
+        emit = true;
+      } else if (argument.equals("--run")) {
+        run = true;
+      } else if (argument.equals("--stream")) {
+        stream = true;
+      } else if (argument.equals("--module")) {
+        module = true;
+      } else if (argument.equals("--incremental")) {
+        incremental = true;
+      } else if (argument.equals("--share-evaluations")) {
+        share = true;
+      } else if (argument.startsWith("-")) {
+        System.out.printf("Unknown flag `%s`!%n", argument);
+        return false;
+      } else {
+        names.add(argument);
+      }
+    }
+    if (stream && backend != Backend.C) {
+      System.out.printf("Streaming only supports the `%s` backend!%n",
+        Backend.C);
+      return false;
+    }
+    if (stream && module) {
+      System.out.println("Modules cannot be streamed!");
+      return false;
+    }
+    if (incremental && (!module || run)) {
+      System.out.println(
+        "Incremental builds need `--module` and cannot `--run`!");
+      return false;
+    }
+    optimizer = Optimizer.of(passes, relaxed, format, statistics);
+    return true;
+  }
+
+  /** Flags that change what is built for a file. */
+  String flags() {
+    var flags = new StringJoiner(" ");
+    flags.add(backend.name).add(profile.name);
+    for (var pass : passes) {
+      flags.add(pass.name);
+    }
+    if (relaxed) {
+      flags.add("--relaxed-fp");
+    }
+    if (emit) {
+      flags.add("--emit-only");
+    }
+    return flags.toString();
+  }
+
+  /** New interner for the evaluations of a file. */
+  Interner interner() {
+    return share ? Interner.of() : Interner.NONE;
+  }
+
+  /** Whether the argument is the flag, alone or with `=` and a value. */
+  private boolean takes(String flag) {
+    var argument = arguments[index];
+    return argument.equals(flag) || argument.startsWith(flag + '=');
+  }
+
+  /**
+   * Value of a flag given as `flag value` or `flag=value`, or right after
+   * the flag like the make-style `-j4`.
+   */
+  private String value(String flag) {
+    var argument = arguments[index];
+    if (argument.startsWith(flag + '=')) {
+      return argument.substring(flag.length() + 1);
+    }
+    if (!argument.equals(flag)) {
+      return argument.substring(flag.length());
+    }
+    if (++index == arguments.length) {
+      System.out.printf("Provide a value after `%s`!%n", flag);
+      return null;
+    }
+    return arguments[index];
+  }
+}
@@ -0,0 +1,55 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+import jdk.jfr.*;
+
+/** Flight Recorder event of a phase of compiling a file. */
+@Name("jthrice.Phase")
+@Label("Phase")
+@Category("Thrice")
+@Description("A phase of compiling a file, with the counts at its end.")
+@StackTrace(false)
+public final class PhaseEvent extends Event {
+  /** Starts the event of a phase of the file. */
+  public static PhaseEvent begin(Resolution resolution) {
+    var event = new PhaseEvent();
+    event.resolution = resolution;
+    event.begin();
+    return event;
+  }
+
+  @Label("File")
+  String file;
+  @Label("Phase")
+  String phase;
+  @Label("Tokens")
+  int    tokens;
+  @Label("Nodes")
+  int    nodes;
+  @Label("Symbols")
+  int    symbols;
+  @Label("Errors")
+  int    errors;
+
+  private transient Resolution resolution;
+
+  private PhaseEvent() {
+  }
+
+  /** Ends the phase with the counts of the file, which are 0 if unknown. */
+  public void end(String phase, int tokens, int nodes, int symbols) {
+    end();
+    if (!shouldCommit()) {
+      return;
+    }
+    file         = resolution.name();
+    this.phase   = phase;
+    this.tokens  = tokens;
+    this.nodes   = nodes;
+    this.symbols = symbols;
+    errors       = resolution.errors();
+    commit();
+  }
+}
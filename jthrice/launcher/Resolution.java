@@ -3,28 +3,52 @@
 
 package jthrice.launcher;
 
+import java.util.*;
+
 public final class Resolution {
   public static Resolution of(String name) {
-    return new Resolution(name, 0, 0);
+    return new Resolution(name, null, 0, 0);
+  }
+
+  /** Creates a resolution that adds the messages to the list. */
+  public static Resolution of(String name, List<Diagnostic> diagnostics) {
+    return new Resolution(name, diagnostics, 0, 0);
   }
 
-  private final String name;
-  private int          errors;
-  private int          warnings;
+  private final String           name;
+  /** Where the messages go, or null if they are printed. */
+  private final List<Diagnostic> diagnostics;
+  private int                    errors;
+  private int                    warnings;
+
+  private Resolution(String name, List<Diagnostic> diagnostics, int errors,
+    int warnings) {
+    this.name        = name;
+    this.diagnostics = diagnostics;
+    this.errors      = errors;
+    this.warnings    = warnings;
+  }
+
+  public String name() {
+    return name;
+  }
 
-  private Resolution(String name, int errors, int warnings) {
-    this.name     = name;
-    this.errors   = errors;
-    this.warnings = warnings;
+  public int errors() {
+    return errors;
   }
 
   private void log(String author, String severity, String message) {
+    if (diagnostics != null) {
+      diagnostics.add(Diagnostic.of(author, null, severity, message));
+      return;
+    }
     System.out.printf("[%s] %s: %s: %s%n", author, name, severity, message);
   }
 
   public void error(String author, String message) {
     this.log(author, "error", message);
     errors++;
+    Metrics.errors(author).add(1);
   }
 
   public void warning(String author, String message) {
@@ -38,6 +62,10 @@ public final class Resolution {
 
   public void log(String author, Portion portion, String severity,
     String message) {
+    if (diagnostics != null) {
+      diagnostics.add(Diagnostic.of(author, portion, severity, message));
+      return;
+    }
     System.out.printf("[%s] %s:%d:%d:%d:%d: %s: %s%n", author, name,
       portion.first().line(), portion.first().column(), portion.last().line(),
       portion.last().column(), severity, message);
@@ -47,6 +75,7 @@ public final class Resolution {
   public void error(String author, Portion portion, String message) {
     this.log(author, portion, "error", message);
     errors++;
+    Metrics.errors(author).add(1);
   }
 
   public void warning(String author, Portion portion, String message) {
@@ -58,6 +87,25 @@ public final class Resolution {
     this.log(author, portion, "info", message);
   }
 
+  /**
+   * Logs the message again, such as one that was collected before. Metrics
+   * counted it when it was first logged.
+   */
+  public void log(Diagnostic diagnostic) {
+    if (diagnostic.portion == null) {
+      this.log(diagnostic.author, diagnostic.severity, diagnostic.message);
+    } else {
+      this.log(diagnostic.author, diagnostic.portion, diagnostic.severity,
+        diagnostic.message);
+    }
+    switch (diagnostic.severity) {
+      case "error" -> errors++;
+      case "warning" -> warnings++;
+      default -> {
+      }
+    }
+  }
+
   void report() {
     if (errors > 0) {
       this.info("LAUNCHER", "There were %d errors!".formatted(errors));
@@ -4,52 +4,121 @@
 package jthrice.launcher;
 
 import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
 import java.nio.file.*;
+import java.security.*;
 import java.util.regex.*;
 
-public final class Source {
+/**
+ * Characters of a Thrice file, which always end with the EOF character and a
+ * line end. Indices, lines and columns are of the current characters, so
+ * locations in a source that is edited later do not follow the edit.
+ */
+public sealed abstract class Source permits FixedSource, EditableSource {
   public static final char   EOF       = 0;
   public static final String EXTENSION = "tr";
 
   public static Source of(String name) throws IOException {
-    var path     = Path.of(name + '.' + EXTENSION).toAbsolutePath();
-    var contents = Files.readString(path).replace("\r", "") + EOF + '\n';
-    return new Source(name, contents);
+    var path = Path.of(name + '.' + EXTENSION).toAbsolutePath();
+    return Source.of(name, Files.readString(path));
   }
 
-  private final String name;
-  private final String contents;
+  /** Creates a source from text that is not in a file, like an editor's. */
+  public static Source of(String name, String text) {
+    return FixedSource.of(name, text);
+  }
 
-  private Source(String name, String contents) {
-    this.name     = name;
-    this.contents = contents;
+  /**
+   * Creates a source from a part of a file that is read alone, which starts
+   * at the line. Lines of its locations are the lines in the file.
+   */
+  public static Source of(String name, String text, int line) {
+    return FixedSource.of(name, text, line);
   }
 
-  public int length() {
-    return contents.length();
+  /** Characters of the text followed by the EOF character and a line end. */
+  static String contents(String text) {
+    return text.replace("\r", "") + EOF + '\n';
   }
 
-  public boolean exists(int index) {
-    return index >= 0 && index < length();
+  /** Digest that hashes the sources and the files about them. */
+  static MessageDigest digest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
   }
 
-  public char at(int index) {
-    return contents.charAt(index);
+  private final String name;
+
+  protected Source(String name) {
+    this.name = name;
   }
 
-  public String sub(int first, int last) {
-    return contents.substring(first, last + 1);
+  /** Line of the character at the index, starting from 1. */
+  public abstract int line(int index);
+
+  /** Column of the character at the index, starting from 1. */
+  public abstract int column(int index);
+
+  public abstract int length();
+
+  public boolean exists(int index) {
+    return index >= 0 && index < length();
   }
 
+  public abstract char at(int index);
+
+  public abstract String sub(int first, int last);
+
   public String name() {
     return name;
   }
 
-  public Matcher matcher(Pattern pattern) {
-    return pattern.matcher(contents);
+  /**
+   * First bytes of the SHA-256 digest of the characters in UTF-8. They are
+   * encoded in blocks, so the characters are not copied as a whole.
+   */
+  public long hash() {
+    var digest  = Source.digest();
+    var encoder = StandardCharsets.UTF_8.newEncoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    var chars   = CharBuffer.allocate(4096);
+    var bytes   = ByteBuffer.allocate(3 * chars.capacity());
+    var index   = 0;
+    var ended   = false;
+    while (!ended) {
+      while (chars.hasRemaining() && index < length()) {
+        chars.put(at(index++));
+      }
+      ended = index == length();
+      chars.flip();
+      encoder.encode(chars, bytes, ended);
+      if (ended) {
+        encoder.flush(bytes);
+      }
+      bytes.flip();
+      digest.update(bytes);
+      bytes.clear();
+      chars.compact();
+    }
+    return ByteBuffer.wrap(digest.digest()).getLong();
   }
 
+  public abstract Matcher matcher(Pattern pattern);
+
   public boolean matches(String string, int index) {
-    return contents.startsWith(string, index);
+    if (index < 0 || index + string.length() > length()) {
+      return false;
+    }
+    for (var i = 0; i < string.length(); i++) {
+      if (at(index + i) != string.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
   }
 }
@@ -0,0 +1,324 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Items in order, each of which spans some characters and line ends, and
+ * has some marks. They are kept in a treap whose nodes sum their subtrees,
+ * so an item is found by its index, by a character or by a line end, and a
+ * run of items is replaced, in logarithmic time. Only the subtrees with
+ * marks are visited to find the marked items. Walks recurse only as deep
+ * as the treap, which is logarithmic in the number of the items.
+ */
+public final class Spans<T> implements Iterable<T> {
+  public static <T> Spans<T> of(ToIntFunction<T> length,
+    ToIntFunction<T> lines, ToIntFunction<T> marks) {
+    return new Spans<>(length, lines, marks, new SplittableRandom(0));
+  }
+
+  private final ToIntFunction<T> length;
+  private final ToIntFunction<T> lines;
+  private final ToIntFunction<T> marks;
+  private final SplittableRandom random;
+  private Node<T>                root;
+
+  private Spans(ToIntFunction<T> length, ToIntFunction<T> lines,
+    ToIntFunction<T> marks, SplittableRandom random) {
+    this.length = length;
+    this.lines  = lines;
+    this.marks  = marks;
+    this.random = random;
+  }
+
+  public int size() {
+    return root == null ? 0 : root.size;
+  }
+
+  /** Number of the characters of all the items. */
+  public int length() {
+    return root == null ? 0 : root.length;
+  }
+
+  /** Number of the line ends of all the items. */
+  public int lines() {
+    return root == null ? 0 : root.lines;
+  }
+
+  public T get(int index) {
+    return node(index).item;
+  }
+
+  /** Number of the characters before the item at the index. */
+  public int start(int index) {
+    var start = 0;
+    for (var node = root; node != null;) {
+      var before = Spans.size(node.left);
+      if (index < before) {
+        node = node.left;
+        continue;
+      }
+      start += Spans.length(node.left);
+      if (index == before) {
+        return start;
+      }
+      start += length.applyAsInt(node.item);
+      index -= before + 1;
+      node   = node.right;
+    }
+    return start;
+  }
+
+  /** Number of the line ends before the item at the index. */
+  public int ends(int index) {
+    var ends = 0;
+    for (var node = root; node != null;) {
+      var before = Spans.size(node.left);
+      if (index < before) {
+        node = node.left;
+        continue;
+      }
+      ends += Spans.lines(node.left);
+      if (index == before) {
+        return ends;
+      }
+      ends  += lines.applyAsInt(node.item);
+      index -= before + 1;
+      node   = node.right;
+    }
+    return ends;
+  }
+
+  /**
+   * Index of the item that has the character at the index, or of the last
+   * item if the index is after all of them.
+   */
+  public int at(int character) {
+    var index = 0;
+    for (var node = root; node != null;) {
+      if (character < Spans.length(node.left)) {
+        node = node.left;
+        continue;
+      }
+      character -= Spans.length(node.left);
+      index     += Spans.size(node.left);
+      var own = length.applyAsInt(node.item);
+      if (character < own || node.right == null) {
+        return index;
+      }
+      character -= own;
+      index     += 1;
+      node       = node.right;
+    }
+    return Math.max(0, size() - 1);
+  }
+
+  /** Index of the item that has the line end with the count, from 1. */
+  public int line(int count) {
+    var index = 0;
+    for (var node = root; node != null;) {
+      if (count <= Spans.lines(node.left)) {
+        node = node.left;
+        continue;
+      }
+      count -= Spans.lines(node.left);
+      index += Spans.size(node.left);
+      var own = lines.applyAsInt(node.item);
+      if (count <= own) {
+        return index;
+      }
+      count -= own;
+      index += 1;
+      node   = node.right;
+    }
+    throw new IndexOutOfBoundsException("There are not enough line ends!");
+  }
+
+  /**
+   * Replaces the items from the first to the last, which is one less than
+   * the first to only insert, with the given ones.
+   */
+  public void replace(int first, int last, List<T> items) {
+    var before  = split(root, first);
+    var after   = split(before[1], last - first + 1);
+    Node<T> run = null;
+    for (var item : items) {
+      run = merge(run, node(item));
+    }
+    root = merge(merge(before[0], run), after[1]);
+  }
+
+  /** Sums the subtrees again after the marks of the items changed. */
+  public void measure() {
+    measure(root);
+  }
+
+  /** Indices of the items that have marks, in order. */
+  public List<Integer> marked() {
+    var marked = new ArrayList<Integer>();
+    mark(root, 0, marked);
+    return marked;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    var stack = new ArrayDeque<Node<T>>();
+    for (var node = root; node != null; node = node.left) {
+      stack.push(node);
+    }
+    return new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return !stack.isEmpty();
+      }
+
+      @Override
+      public T next() {
+        if (stack.isEmpty()) {
+          throw new NoSuchElementException();
+        }
+        var node = stack.pop();
+        for (var next = node.right; next != null; next = next.left) {
+          stack.push(next);
+        }
+        return node.item;
+      }
+    };
+  }
+
+  private void measure(Node<T> node) {
+    if (node == null) {
+      return;
+    }
+    measure(node.left);
+    measure(node.right);
+    sum(node);
+  }
+
+  /** Adds the marked items of the subtree whose first item is at start. */
+  private void mark(Node<T> node, int start, List<Integer> marked) {
+    if (node == null || node.marks == 0) {
+      return;
+    }
+    var index = start + Spans.size(node.left);
+    mark(node.left, start, marked);
+    if (marks.applyAsInt(node.item) != 0) {
+      marked.add(index);
+    }
+    mark(node.right, index + 1, marked);
+  }
+
+  private Node<T> node(int index) {
+    if (index < 0 || index >= size()) {
+      throw new IndexOutOfBoundsException(
+        "Index %d is out of %d items!".formatted(index, size()));
+    }
+    var node = root;
+    while (true) {
+      var before = Spans.size(node.left);
+      if (index == before) {
+        return node;
+      }
+      if (index < before) {
+        node = node.left;
+      } else {
+        index -= before + 1;
+        node   = node.right;
+      }
+    }
+  }
+
+  private Node<T> node(T item) {
+    var node = new Node<>(item, random.nextInt());
+    sum(node);
+    return node;
+  }
+
+  /** Joins the trees, where all the items of the left are before. */
+  private Node<T> merge(Node<T> left, Node<T> right) {
+    if (left == null) {
+      return right;
+    }
+    if (right == null) {
+      return left;
+    }
+    if (left.priority > right.priority) {
+      left.right = merge(left.right, right);
+      sum(left);
+      return left;
+    }
+    right.left = merge(left, right.left);
+    sum(right);
+    return right;
+  }
+
+  /** Trees of the items before the count and of the rest. */
+  private Node<T>[] split(Node<T> node, int count) {
+    @SuppressWarnings("unchecked")
+    var split = (Node<T>[]) new Node<?>[2];
+    if (node == null) {
+      return split;
+    }
+    var before = Spans.size(node.left);
+    if (count <= before) {
+      var left = split(node.left, count);
+      node.left = left[1];
+      sum(node);
+      split[0] = left[0];
+      split[1] = node;
+    } else {
+      var right = split(node.right, count - before - 1);
+      node.right = right[0];
+      sum(node);
+      split[0] = node;
+      split[1] = right[1];
+    }
+    return split;
+  }
+
+  private void sum(Node<T> node) {
+    node.size   = Spans.size(node.left) + 1 + Spans.size(node.right);
+    node.length = Spans.length(node.left) + length.applyAsInt(node.item)
+      + Spans.length(node.right);
+    node.lines  = Spans.lines(node.left) + lines.applyAsInt(node.item)
+      + Spans.lines(node.right);
+    node.marks  = Spans.marks(node.left) + marks.applyAsInt(node.item)
+      + Spans.marks(node.right);
+  }
+
+  private static int size(Node<?> node) {
+    return node == null ? 0 : node.size;
+  }
+
+  private static int length(Node<?> node) {
+    return node == null ? 0 : node.length;
+  }
+
+  private static int lines(Node<?> node) {
+    return node == null ? 0 : node.lines;
+  }
+
+  private static int marks(Node<?> node) {
+    return node == null ? 0 : node.marks;
+  }
+
+  /** Item with the sums of the subtree it is the root of. */
+  private static final class Node<T> {
+    final T   item;
+    final int priority;
+    Node<T>   left;
+    Node<T>   right;
+    int       size;
+    int       length;
+    int       lines;
+    int       marks;
+
+    Node(T item, int priority) {
+      this.item     = item;
+      this.priority = priority;
+    }
+  }
+}
@@ -0,0 +1,124 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.file.*;
+import java.util.*;
+
+import jthrice.analyzer.*;
+
+/**
+ * Interface of a file that was built in a module, which is its variables
+ * with their types and their known values, and what it was built against.
+ * A file whose source and flags did not change is not built again while the
+ * interfaces of the files it imports from have the same hashes.
+ */
+final class Summary {
+  /** Kind of the files that store a summary. */
+  static final char KIND = 'I';
+
+  static Summary of(long source, String flags, Set<String> accessed,
+    Map<String, String> imports, Map<String, Long> dependencies,
+    Solution solution) {
+    var encoder = Encoder.of(Solution.KIND);
+    solution.summarize().write(encoder);
+    var bytes = encoder.toByteArray();
+    return new Summary(source, flags, accessed, imports, dependencies, bytes,
+      Summary.hash(bytes));
+  }
+
+  /** Reads the summary in the file, or gives null if there is no valid one. */
+  static Summary read(Path path) {
+    if (!Files.exists(path)) {
+      return null;
+    }
+    try {
+      var decoder = Decoder.map(path, KIND);
+      if (decoder == null) {
+        return null;
+      }
+      var source   = decoder.signed();
+      var flags    = decoder.name();
+      var accessed = new LinkedHashSet<String>();
+      for (var i = decoder.unsigned(); i > 0; i--) {
+        accessed.add(decoder.name());
+      }
+      var imports = new TreeMap<String, String>();
+      for (var i = decoder.unsigned(); i > 0; i--) {
+        imports.put(decoder.name(), decoder.name());
+      }
+      var dependencies = new TreeMap<String, Long>();
+      for (var i = decoder.unsigned(); i > 0; i--) {
+        dependencies.put(decoder.name(), decoder.signed());
+      }
+      var bytes = decoder.bytes();
+      return new Summary(source, flags, accessed, imports, dependencies,
+        bytes, Summary.hash(bytes));
+    } catch (IOException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /** First bytes of the SHA-256 digest of the bytes, like the sources. */
+  private static long hash(byte[] bytes) {
+    return ByteBuffer.wrap(Source.digest().digest(bytes)).getLong();
+  }
+
+  /** Hash of the source the file was built from. */
+  final long                source;
+  /** Flags that change what is built, which the file was built with. */
+  final String              flags;
+  /** Names the file accesses without defining them. */
+  final Set<String>         accessed;
+  /** Names the file imports, with the files that defined them. */
+  final Map<String, String> imports;
+  /** Hashes of the summaries of the files that the file imports from. */
+  final Map<String, Long>   dependencies;
+  /** Solution of the summary in the binary format. */
+  private final byte[]      solution;
+  /** Hash of the solution, which changes only when the interface does. */
+  final long                hash;
+
+  private Summary(long source, String flags, Set<String> accessed,
+    Map<String, String> imports, Map<String, Long> dependencies,
+    byte[] solution, long hash) {
+    this.source       = source;
+    this.flags        = flags;
+    this.accessed     = accessed;
+    this.imports      = imports;
+    this.dependencies = dependencies;
+    this.solution     = solution;
+    this.hash         = hash;
+  }
+
+  Solution solution() {
+    return Solution.read(Decoder.of(ByteBuffer.wrap(solution),
+      Solution.KIND));
+  }
+
+  void write(Path path) throws IOException {
+    var encoder = Encoder.of(KIND);
+    encoder.signed(source);
+    encoder.name(flags);
+    encoder.unsigned(accessed.size());
+    for (var name : accessed) {
+      encoder.name(name);
+    }
+    encoder.unsigned(imports.size());
+    for (var entry : imports.entrySet()) {
+      encoder.name(entry.getKey());
+      encoder.name(entry.getValue());
+    }
+    encoder.unsigned(dependencies.size());
+    for (var entry : dependencies.entrySet()) {
+      encoder.name(entry.getKey());
+      encoder.signed(entry.getValue());
+    }
+    encoder.bytes(solution);
+    Files.createDirectories(path.toAbsolutePath().getParent());
+    encoder.write(path);
+  }
+}
@@ -0,0 +1,211 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+import java.lang.management.*;
+import java.util.*;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Wall time, CPU time and allocated bytes of each phase of compiling a file.
+ * Phases are measured on the thread that runs them, one after the other, so
+ * marking the end of a phase starts the next one. The native compiler runs in
+ * other processes, so only its wall time is known, which includes waiting for
+ * a free job. Phases and the file are also recorded as Flight Recorder
+ * events, whether or not the timing is enabled. Phases of this thread are
+ * added to the trace; the native processes add their own spans.
+ */
+public final class Timing {
+  public static final String[] PHASES = { "load", "lex", "parse", "print",
+    "analyze", "optimize", "generate", "native" };
+
+  static final int LOAD     = 0;
+  static final int LEX      = 1;
+  static final int PARSE    = 2;
+  static final int PRINT    = 3;
+  static final int ANALYZE  = 4;
+  static final int OPTIMIZE = 5;
+  static final int GENERATE = 6;
+  static final int NATIVE   = 7;
+
+  private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory
+    .getThreadMXBean();
+
+  /**
+   * Creates a timing that measures nothing if it is not enabled, and adds
+   * spans to the trace if it is not null.
+   */
+  static Timing of(Resolution resolution, boolean enabled, Trace trace) {
+    var length = enabled ? PHASES.length : 0;
+    return new Timing(resolution, enabled, new long[length], new long[length],
+      new long[length], new FileEvent(), trace);
+  }
+
+  public final String     name;
+  public final boolean    enabled;
+  final Resolution        resolution;
+  private final long[]    wall;
+  private final long[]    cpu;
+  private final long[]    allocated;
+  private final FileEvent file;
+  private final Trace     trace;
+  private PhaseEvent      event;
+  private long            begin;
+
+  /** Counts of the file that are known so far, which go into the events. */
+  long bytes;
+  int  tokens;
+  int  nodes;
+  int  symbols;
+
+  private long lastWall;
+  private long lastCPU;
+  private long lastAllocated;
+
+  private Timing(Resolution resolution, boolean enabled, long[] wall,
+    long[] cpu, long[] allocated, FileEvent file, Trace trace) {
+    this.resolution = resolution;
+    this.enabled    = enabled;
+    this.wall       = wall;
+    this.cpu        = cpu;
+    this.allocated  = allocated;
+    this.file       = file;
+    this.trace      = trace;
+    name            = resolution.name();
+  }
+
+  /** Whether the counts that take time to find are recorded. */
+  boolean recording() {
+    return file.isEnabled();
+  }
+
+  /** Starts the first phase on the current thread. */
+  void start() {
+    file.begin();
+    event = PhaseEvent.begin(resolution);
+    if (trace != null) {
+      begin = System.nanoTime();
+    }
+    measure();
+  }
+
+  /**
+   * Continues the phases on the current thread after the file waited, which
+   * is not counted in any phase.
+   */
+  void resume() {
+    event = PhaseEvent.begin(resolution);
+    if (trace != null) {
+      begin = System.nanoTime();
+    }
+    measure();
+  }
+
+  private void measure() {
+    if (!enabled) {
+      return;
+    }
+    lastWall      = System.nanoTime();
+    lastCPU       = THREADS.getCurrentThreadCpuTime();
+    lastAllocated = THREADS.getCurrentThreadAllocatedBytes();
+  }
+
+  /** Ends the phase and starts the next one on the current thread. */
+  void mark(int phase) {
+    record(phase);
+    if (trace != null) {
+      var end = System.nanoTime();
+      trace.span(PHASES[phase], name, begin, end);
+      begin = end;
+    }
+    if (!enabled) {
+      return;
+    }
+    var previousWall      = lastWall;
+    var previousCPU       = lastCPU;
+    var previousAllocated = lastAllocated;
+    measure();
+    wall[phase]      += lastWall - previousWall;
+    cpu[phase]       += lastCPU - previousCPU;
+    allocated[phase] += lastAllocated - previousAllocated;
+  }
+
+  /** Ends the phase that ran outside of this thread. */
+  void await(int phase) {
+    record(phase);
+    if (!enabled) {
+      return;
+    }
+    var previousWall = lastWall;
+    lastWall     = System.nanoTime();
+    wall[phase] += lastWall - previousWall;
+  }
+
+  private void record(int phase) {
+    event.end(PHASES[phase], tokens, nodes, symbols);
+    event = PhaseEvent.begin(resolution);
+  }
+
+  /** Ends the file after its last phase. */
+  void end() {
+    file.end();
+    if (!file.shouldCommit()) {
+      return;
+    }
+    file.file    = name;
+    file.bytes   = bytes;
+    file.tokens  = tokens;
+    file.nodes   = nodes;
+    file.symbols = symbols;
+    file.errors  = resolution.errors();
+    file.commit();
+  }
+
+  public long wall() {
+    var total = 0L;
+    for (var time : wall) {
+      total += time;
+    }
+    return total;
+  }
+
+  void report() {
+    if (!enabled) {
+      return;
+    }
+    // Keep the table of a file together when files finish at the same time.
+    synchronized (System.out) {
+      resolution.info("LAUNCHER", "%-8s %12s %12s %14s".formatted("phase",
+        "wall (ms)", "cpu (ms)", "allocated (B)"));
+      for (var phase = 0; phase < PHASES.length; phase++) {
+        resolution.info("LAUNCHER", "%-8s %12.3f %12.3f %14d".formatted(
+          PHASES[phase], wall[phase] / 1e6, cpu[phase] / 1e6,
+          allocated[phase]));
+      }
+    }
+  }
+
+  /** Prints the phases of the given number of files that took the longest. */
+  static void summarize(Collection<Timing> timings, int count) {
+    var slowest = new ArrayList<>(timings);
+    slowest.sort(Comparator.comparingLong(Timing::wall).reversed());
+    slowest = new ArrayList<>(slowest.subList(0,
+      Math.min(count, slowest.size())));
+    System.out.printf("Slowest %d of %d files, in wall milliseconds:%n",
+      slowest.size(), timings.size());
+    System.out.printf("%10s", "total");
+    for (var phase : PHASES) {
+      System.out.printf(" %10s", phase);
+    }
+    System.out.println(" file");
+    for (var timing : slowest) {
+      System.out.printf("%10.3f", timing.wall() / 1e6);
+      for (var time : timing.wall) {
+        System.out.printf(" %10.3f", time / 1e6);
+      }
+      System.out.printf(" %s%n", timing.name);
+    }
+  }
+}
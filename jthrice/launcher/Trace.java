@@ -0,0 +1,122 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.launcher;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Spans of the build that are written in the Chrome trace-event format, which
+ * Perfetto and chrome://tracing show as a timeline of each thread. Every
+ * thread adds its spans to a buffer of its own, so recording takes no locks;
+ * buffers are read only after the build is done.
+ */
+public final class Trace {
+  public static Trace of(Path path) {
+    return new Trace(path, System.nanoTime(), new ConcurrentLinkedQueue<>());
+  }
+
+  public final Path                 path;
+  private final long                origin;
+  private final Queue<Buffer>       buffers;
+  private final ThreadLocal<Buffer> local;
+
+  private Trace(Path path, long origin, Queue<Buffer> buffers) {
+    this.path    = path;
+    this.origin  = origin;
+    this.buffers = buffers;
+    local        = ThreadLocal.withInitial(this::register);
+  }
+
+  private Buffer register() {
+    var buffer = new Buffer(Thread.currentThread());
+    buffers.add(buffer);
+    return buffer;
+  }
+
+  /** Records a span of the file between the times from System.nanoTime. */
+  public void span(String name, String file, long start, long end) {
+    local.get().add(name, file, start, end);
+  }
+
+  /** Writes the spans, which must not be added to anymore. */
+  public void write() throws IOException {
+    try (var out = new PrintWriter(Files.newBufferedWriter(path))) {
+      out.println("{\"traceEvents\":[");
+      var first = true;
+      for (var buffer : buffers) {
+        if (!first) {
+          out.println(',');
+        }
+        first = false;
+        out.printf("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,"
+          + "\"tid\":%d,\"args\":{\"name\":\"%s\"}}", buffer.thread,
+          Trace.escape(buffer.name));
+        for (var i = 0; i < buffer.size; i++) {
+          out.printf(Locale.ROOT,
+            ",%n{\"name\":\"%s\",\"cat\":\"build\",\"ph\":\"X\","
+              + "\"ts\":%.3f,\"dur\":%.3f,\"pid\":1,\"tid\":%d,"
+              + "\"args\":{\"file\":\"%s\"}}",
+            Trace.escape(buffer.names[i]), (buffer.starts[i] - origin) / 1e3,
+            (buffer.ends[i] - buffer.starts[i]) / 1e3, buffer.thread,
+            Trace.escape(buffer.files[i]));
+        }
+      }
+      out.println();
+      out.println("],\"displayTimeUnit\":\"ms\"}");
+    }
+  }
+
+  private static String escape(String string) {
+    var builder = new StringBuilder(string.length());
+    for (var i = 0; i < string.length(); i++) {
+      var c = string.charAt(i);
+      if (c == '"' || c == '\\') {
+        builder.append('\\').append(c);
+      } else if (c < ' ') {
+        builder.append("\\u%04x".formatted((int) c));
+      } else {
+        builder.append(c);
+      }
+    }
+    return builder.toString();
+  }
+
+  /** Spans of a thread, which only that thread adds to. */
+  private static final class Buffer {
+    final long   thread;
+    final String name;
+
+    String[] names;
+    String[] files;
+    long[]   starts;
+    long[]   ends;
+    int      size;
+
+    Buffer(Thread thread) {
+      this.thread = thread.getId();
+      name        = thread.getName();
+      names       = new String[64];
+      files       = new String[64];
+      starts      = new long[64];
+      ends        = new long[64];
+    }
+
+    void add(String name, String file, long start, long end) {
+      if (size == names.length) {
+        names  = Arrays.copyOf(names, size * 2);
+        files  = Arrays.copyOf(files, size * 2);
+        starts = Arrays.copyOf(starts, size * 2);
+        ends   = Arrays.copyOf(ends, size * 2);
+      }
+      names[size]  = name;
+      files[size]  = file;
+      starts[size] = start;
+      ends[size]   = end;
+      size++;
+    }
+  }
+}
@@ -88,6 +88,122 @@ public sealed abstract class Lexeme permits Token, Keyword, Decimal, Identifier,
     return null;
   }
 
+  /** Number that stands for the class of the lexeme when it is stored. */
+  public static int kind(Class<? extends Lexeme> type) {
+    if (type == Equal.class) {
+      return 0;
+    }
+    if (type == Colon.class) {
+      return 1;
+    }
+    if (type == Semicolon.class) {
+      return 2;
+    }
+    if (type == OpeningParenthesis.class) {
+      return 3;
+    }
+    if (type == ClosingParenthesis.class) {
+      return 4;
+    }
+    if (type == Plus.class) {
+      return 5;
+    }
+    if (type == Minus.class) {
+      return 6;
+    }
+    if (type == Star.class) {
+      return 7;
+    }
+    if (type == Slash.class) {
+      return 8;
+    }
+    if (type == Percent.class) {
+      return 9;
+    }
+    if (type == EOF.class) {
+      return 10;
+    }
+    if (type == I1.class) {
+      return 11;
+    }
+    if (type == I2.class) {
+      return 12;
+    }
+    if (type == I4.class) {
+      return 13;
+    }
+    if (type == I8.class) {
+      return 14;
+    }
+    if (type == Ix.class) {
+      return 15;
+    }
+    if (type == U1.class) {
+      return 16;
+    }
+    if (type == U2.class) {
+      return 17;
+    }
+    if (type == U4.class) {
+      return 18;
+    }
+    if (type == U8.class) {
+      return 19;
+    }
+    if (type == Ux.class) {
+      return 20;
+    }
+    if (type == F4.class) {
+      return 21;
+    }
+    if (type == F8.class) {
+      return 22;
+    }
+    if (type == Decimal.class) {
+      return 23;
+    }
+    if (type == Identifier.class) {
+      return 24;
+    }
+    if (type == Unknown.class) {
+      return 25;
+    }
+    return -1;
+  }
+
+  /** Lexeme of the kind, or null if there is no such kind. */
+  public static Lexeme of(int kind, Portion portion) {
+    return switch (kind) {
+      case 0 -> new Equal(portion);
+      case 1 -> new Colon(portion);
+      case 2 -> new Semicolon(portion);
+      case 3 -> new OpeningParenthesis(portion);
+      case 4 -> new ClosingParenthesis(portion);
+      case 5 -> new Plus(portion);
+      case 6 -> new Minus(portion);
+      case 7 -> new Star(portion);
+      case 8 -> new Slash(portion);
+      case 9 -> new Percent(portion);
+      case 10 -> new EOF(portion);
+      case 11 -> new I1(portion);
+      case 12 -> new I2(portion);
+      case 13 -> new I4(portion);
+      case 14 -> new I8(portion);
+      case 15 -> new Ix(portion);
+      case 16 -> new U1(portion);
+      case 17 -> new U2(portion);
+      case 18 -> new U4(portion);
+      case 19 -> new U8(portion);
+      case 20 -> new Ux(portion);
+      case 21 -> new F4(portion);
+      case 22 -> new F8(portion);
+      case 23 -> new Decimal(portion);
+      case 24 -> new Identifier(portion);
+      case 25 -> new Unknown(portion);
+      default -> null;
+    };
+  }
+
   public final Portion portion;
 
   Lexeme(Portion portion) {
@@ -16,6 +16,7 @@ public final class Lexer {
       lexer.matchers.put(regular, regular.matcher(source));
     }
     lexer.lex();
+    Metrics.TOKENS.add(lexer.lex.size());
     return lexer.lex;
   }
 
@@ -83,10 +84,7 @@ public final class Lexer {
     for (var entry : matchers.entrySet()) {
       var regular = entry.getKey();
       var matcher = entry.getValue();
-      if (matcher.find(index)) {
-        if (matcher.start() != index) {
-          continue;
-        }
+      if (Lexer.matches(matcher, index)) {
         index = matcher.end();
         lex.add(regular
           .create(Portion.of(source, matcher.start(), matcher.end() - 1)));
@@ -117,10 +115,19 @@ public final class Lexer {
   }
 
   private boolean lexWhitespace() {
-    if (whitespace.find(index) && whitespace.start() == index) {
+    if (Lexer.matches(whitespace, index)) {
       index = whitespace.end();
       return true;
     }
     return false;
   }
+
+  /**
+   * Whether the pattern matches at the index. Searching with `find` would
+   * scan the rest of the source when it does not, which made lexing
+   * quadratic.
+   */
+  private static boolean matches(Matcher matcher, int index) {
+    return matcher.region(index, matcher.regionEnd()).lookingAt();
+  }
 }
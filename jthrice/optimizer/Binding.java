@@ -0,0 +1,19 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.optimizer;
+
+/** Value that is bound to a user-defined variable. */
+public final class Binding {
+  static Binding of(String name, Value value) {
+    return new Binding(name, value);
+  }
+
+  public final String name;
+  public final Value  value;
+
+  private Binding(String name, Value value) {
+    this.name  = name;
+    this.value = value;
+  }
+}
@@ -0,0 +1,26 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.optimizer;
+
+import java.math.*;
+
+import jthrice.analyzer.*;
+
+public final class Constant extends Value {
+  static Constant of(Scalar type, BigDecimal value) {
+    return new Constant(type, value);
+  }
+
+  public final BigDecimal value;
+
+  private Constant(Scalar type, BigDecimal value) {
+    super(type);
+    this.value = value;
+  }
+
+  @Override
+  public String toString() {
+    return value.toString();
+  }
+}
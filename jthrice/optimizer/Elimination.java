@@ -0,0 +1,36 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.optimizer;
+
+import java.util.*;
+
+/** Removes the operations that no variable depends on. */
+public final class Elimination extends Pass {
+  Elimination() {
+    super("elimination");
+  }
+
+  @Override
+  Program run(Program program, boolean relaxed, Statistics statistics) {
+    var live = Collections.newSetFromMap(new IdentityHashMap<Value, Boolean>());
+    for (var binding : program.bindings) {
+      live.add(binding.value);
+    }
+    for (var i = program.operations.size() - 1; i >= 0; i--) {
+      var operation = program.operations.get(i);
+      if (live.contains(operation)) {
+        live.addAll(operation.operands);
+      }
+    }
+    var operations = new ArrayList<Operation>(program.operations.size());
+    for (var operation : program.operations) {
+      if (live.contains(operation)) {
+        operations.add(operation);
+      } else {
+        statistics.count("removed");
+      }
+    }
+    return Program.of(operations, program.bindings);
+  }
+}
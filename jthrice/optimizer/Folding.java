@@ -0,0 +1,70 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.optimizer;
+
+import java.math.*;
+
+import jthrice.analyzer.*;
+
+/** Computes the operations whose operands are all constants. */
+public final class Folding extends Pass {
+  Folding() {
+    super("folding");
+  }
+
+  @Override
+  Program run(Program program, boolean relaxed, Statistics statistics) {
+    var rewrite = Rewrite.of(program);
+    for (var operation : program.operations) {
+      var replaced = rewrite.operands(operation);
+      var folded   = Folding.fold(replaced);
+      if (folded == null || Arithmetic.overflows(operation.type, folded)) {
+        rewrite.put(operation, replaced);
+        continue;
+      }
+      rewrite.put(operation,
+        Constant.of(operation.type, (BigDecimal) folded));
+      statistics.count("folded");
+    }
+    return rewrite.program();
+  }
+
+  private static Object fold(Operation operation) {
+    for (var operand : operation.operands) {
+      if (!(operand instanceof Constant)) {
+        return null;
+      }
+    }
+    var type  = operation.type;
+    var first = ((Constant) operation.operands.get(0)).value;
+    if (operation.opcode == Opcode.NEGATE) {
+      return Arithmetic.negate(type, first);
+    }
+    var second = ((Constant) operation.operands.get(1)).value;
+    if (operation.opcode == Opcode.ADD) {
+      return Arithmetic.add(type, first, second);
+    }
+    if (operation.opcode == Opcode.SUBTRACT) {
+      return Arithmetic.subtract(type, first, second);
+    }
+    if (operation.opcode == Opcode.MULTIPLY) {
+      return Arithmetic.multiply(type, first, second);
+    }
+    if (operation.opcode == Opcode.DIVIDE) {
+      return Arithmetic.divide(type, first, second);
+    }
+    if (operation.opcode == Opcode.REMINDER) {
+      return Arithmetic.reminder(type, first, second);
+    }
+    if (operation.opcode == Opcode.SHIFT) {
+      return new BigDecimal(first.toBigIntegerExact()
+        .shiftRight(second.intValueExact()));
+    }
+    if (operation.opcode == Opcode.AND) {
+      return new BigDecimal(first.toBigIntegerExact()
+        .and(second.toBigIntegerExact()));
+    }
+    return null;
+  }
+}
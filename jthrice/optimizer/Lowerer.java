@@ -0,0 +1,143 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.optimizer;
+
+import java.math.*;
+import java.util.*;
+
+import jthrice.analyzer.*;
+
+/**
+ * Turns the evaluation trees of the variables into a program. Accesses become
+ * direct uses of the accessed value, so operations are shared across the
+ * definitions, and folding is left to the passes.
+ */
+public final class Lowerer {
+  public static Program lower(Solution solution) {
+    var lowerer = new Lowerer(new ArrayList<>(), new ArrayList<>(),
+      new HashMap<>());
+    lowerer.lower(solution.symbols.values());
+    return Program.of(lowerer.operations, lowerer.bindings);
+  }
+
+  private final List<Operation>    operations;
+  private final List<Binding>      bindings;
+  private final Map<Symbol, Value> values;
+
+  private Lowerer(List<Operation> operations, List<Binding> bindings,
+    Map<Symbol, Value> values) {
+    this.operations = operations;
+    this.bindings   = bindings;
+    this.values     = values;
+  }
+
+  private void lower(Collection<Symbol> symbols) {
+    for (var symbol : symbols) {
+      if (symbol instanceof Variable variable) {
+        var value = lowerEvaluation(variable.evaluation);
+        values.put(variable, value);
+        bindings.add(Binding.of(variable.name, value));
+      }
+    }
+  }
+
+  /**
+   * Lowers the evaluation after its operands with an explicit stack, so the
+   * depth of the evaluation is not limited by the stack of the thread.
+   */
+  private Value lowerEvaluation(Evaluation evaluation) {
+    var nodes   = new ArrayList<Evaluation>();
+    var lowered = new ArrayList<Integer>();
+    var results = new ArrayList<Value>();
+    nodes.add(evaluation);
+    lowered.add(0);
+    while (true) {
+      var top     = nodes.size() - 1;
+      var node    = nodes.get(top);
+      var done    = lowered.get(top);
+      var operand = operand(node, done);
+      if (operand != null) {
+        lowered.set(top, done + 1);
+        nodes.add(operand);
+        lowered.add(0);
+        continue;
+      }
+      var operands = results.subList(results.size() - done, results.size());
+      var value    = lowerNode(node, operands);
+      operands.clear();
+      nodes.remove(top);
+      lowered.remove(top);
+      if (top == 0) {
+        return value;
+      }
+      results.add(value);
+    }
+  }
+
+  /** Operand at the index that is lowered before the evaluation, or null. */
+  private Evaluation operand(Evaluation evaluation, int index) {
+    return switch (evaluation) {
+      case Literal literal -> null;
+      case Access access -> index == 0
+        && !values.containsKey(access.accessed) ? access.accessed.evaluation
+          : null;
+      case Group group -> index == 0 ? group.operand : null;
+      case Posate posate -> index == 0 ? posate.operand : null;
+      case Negate negate -> index == 0 ? negate.operand : null;
+      case Multiply multiply -> index == 0 ? multiply.left
+        : index == 1 ? multiply.right : null;
+      case Divide divide -> index == 0 ? divide.left
+        : index == 1 ? divide.right : null;
+      case Reminder reminder -> index == 0 ? reminder.left
+        : index == 1 ? reminder.right : null;
+      case Add add -> index == 0 ? add.left : index == 1 ? add.right : null;
+      case Subtract subtract -> index == 0 ? subtract.left
+        : index == 1 ? subtract.right : null;
+    };
+  }
+
+  private Value lowerNode(Evaluation evaluation, List<Value> operands) {
+    return switch (evaluation) {
+      case Literal literal ->
+        Constant.of((Scalar) literal.type, (BigDecimal) literal.value);
+      case Access access -> lowerAccess(access, operands);
+      case Group group -> operands.get(0);
+      case Posate posate -> operands.get(0);
+      case Negate negate -> lowerOperation(Opcode.NEGATE, negate.type,
+        operands);
+      case Multiply multiply -> lowerOperation(Opcode.MULTIPLY, multiply.type,
+        operands);
+      case Divide divide -> lowerOperation(Opcode.DIVIDE, divide.type,
+        operands);
+      case Reminder reminder -> lowerOperation(Opcode.REMINDER, reminder.type,
+        operands);
+      case Add add -> lowerOperation(Opcode.ADD, add.type, operands);
+      case Subtract subtract -> lowerOperation(Opcode.SUBTRACT, subtract.type,
+        operands);
+    };
+  }
+
+  /**
+   * Value of the accessed variable. Variables of other programs, like the
+   * earlier definitions of a stream or the ones of other files, are lowered
+   * again in this one once, as the operand of their first access, and later
+   * accesses use the same value.
+   */
+  private Value lowerAccess(Access access, List<Value> operands) {
+    if (operands.isEmpty()) {
+      return values.get(access.accessed);
+    }
+    var value = operands.get(0);
+    values.put(access.accessed, value);
+    return value;
+  }
+
+  private Value lowerOperation(Opcode opcode, Type type,
+    List<Value> operands) {
+    var operation = Operation.of(opcode, (Scalar) type,
+      new ArrayList<>(operands));
+    operations.add(operation);
+    return operation;
+  }
+}
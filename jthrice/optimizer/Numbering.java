@@ -0,0 +1,57 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.optimizer;
+
+import java.util.*;
+
+/**
+ * Gives the same number to the values that are computed the same way, and
+ * replaces an operation with the first one that has its number. Operands of
+ * commutative operations are ordered by their numbers, so `a+b` and `b+a`
+ * are computed once.
+ */
+public final class Numbering extends Pass {
+  Numbering() {
+    super("numbering");
+  }
+
+  @Override
+  Program run(Program program, boolean relaxed, Statistics statistics) {
+    var rewrite    = Rewrite.of(program);
+    var numbers    = new IdentityHashMap<Operation, Integer>();
+    var constants  = new HashMap<List<Object>, Integer>();
+    var operations = new HashMap<List<Object>, Operation>();
+    for (var operation : program.operations) {
+      var replaced = rewrite.operands(operation);
+      var operands = new int[replaced.operands.size()];
+      for (var i = 0; i < operands.length; i++) {
+        operands[i] = switch (replaced.operands.get(i)) {
+          case Operation operand -> numbers.get(operand);
+          case Constant constant -> constants.computeIfAbsent(
+            List.of(constant.type, constant.value.stripTrailingZeros()),
+            key -> -constants.size() - 1);
+        };
+      }
+      if (replaced.opcode.commutative) {
+        Arrays.sort(operands);
+      }
+      var key = new ArrayList<Object>(operands.length + 2);
+      key.add(replaced.opcode);
+      key.add(replaced.type);
+      for (var operand : operands) {
+        key.add(operand);
+      }
+      var existing = operations.get(key);
+      if (existing != null) {
+        rewrite.put(operation, existing);
+        statistics.count("removed");
+        continue;
+      }
+      numbers.put(replaced, numbers.size());
+      operations.put(key, replaced);
+      rewrite.put(operation, replaced);
+    }
+    return rewrite.program();
+  }
+}
@@ -0,0 +1,33 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.optimizer;
+
+public final class Opcode {
+  public static final Opcode NEGATE   = new Opcode("neg", 1, false);
+  public static final Opcode ADD      = new Opcode("add", 2, true);
+  public static final Opcode SUBTRACT = new Opcode("sub", 2, false);
+  public static final Opcode MULTIPLY = new Opcode("mul", 2, true);
+  public static final Opcode DIVIDE   = new Opcode("div", 2, false);
+  public static final Opcode REMINDER = new Opcode("rem", 2, false);
+  /** Logical shift to right, which only the passes create. */
+  public static final Opcode SHIFT    = new Opcode("shr", 2, false);
+  /** Bitwise and, which only the passes create. */
+  public static final Opcode AND      = new Opcode("and", 2, true);
+
+  public final String  name;
+  public final int     arity;
+  /** Whether the order of the operands does not change the result. */
+  public final boolean commutative;
+
+  private Opcode(String name, int arity, boolean commutative) {
+    this.name        = name;
+    this.arity       = arity;
+    this.commutative = commutative;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
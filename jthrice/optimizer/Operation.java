@@ -0,0 +1,27 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.optimizer;
+
+import java.util.*;
+
+import jthrice.analyzer.*;
+
+public final class Operation extends Value {
+  static Operation of(Opcode opcode, Scalar type, List<Value> operands) {
+    return new Operation(type, opcode, operands);
+  }
+
+  static Operation of(Opcode opcode, Scalar type, Value... operands) {
+    return new Operation(type, opcode, List.of(operands));
+  }
+
+  public final Opcode      opcode;
+  public final List<Value> operands;
+
+  private Operation(Scalar type, Opcode opcode, List<Value> operands) {
+    super(type);
+    this.opcode   = opcode;
+    this.operands = operands;
+  }
+}
@@ -0,0 +1,64 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.optimizer;
+
+import java.util.*;
+
+import jthrice.analyzer.*;
+import jthrice.launcher.*;
+
+/** Lowers the solution and runs the passes over it in order. */
+public final class Optimizer {
+  public static final List<Pass> DEFAULT = List.of(Pass.FOLDING,
+    Pass.SIMPLIFICATION, Pass.REASSOCIATION, Pass.NUMBERING,
+    Pass.ELIMINATION);
+
+  /**
+   * Creates an optimizer that reorders floating-point operations if relaxed
+   * is true, prints the program after each pass in the format if it is not
+   * null, and reports the changes if statistics is true.
+   */
+  public static Optimizer of(List<Pass> passes, boolean relaxed,
+    String format, boolean statistics) {
+    return new Optimizer(passes, relaxed, format, statistics);
+  }
+
+  public final List<Pass> passes;
+  public final boolean    relaxed;
+  private final String    format;
+  private final boolean   statistics;
+
+  private Optimizer(List<Pass> passes, boolean relaxed, String format,
+    boolean statistics) {
+    this.passes     = passes;
+    this.relaxed    = relaxed;
+    this.format     = format;
+    this.statistics = statistics;
+  }
+
+  public Program optimize(Resolution resolution, Solution solution) {
+    var program = Lowerer.lower(solution);
+    print(resolution, "lowering", program);
+    for (var pass : passes) {
+      var statistics = Statistics.of();
+      var result     = pass.run(program, relaxed, statistics);
+      if (this.statistics) {
+        resolution.info("OPTIMIZER", "`%s` changed %d operations to %d.%s"
+          .formatted(pass, program.operations.size(), result.operations.size(),
+            statistics.counts.isEmpty() ? "" : " (%s)".formatted(statistics)));
+      }
+      program = result;
+      print(resolution, pass.name, program);
+    }
+    return program;
+  }
+
+  private void print(Resolution resolution, String step, Program program) {
+    if (format == null) {
+      return;
+    }
+    System.out.print("[OPTIMIZER] %s: after `%s`:%n%s".formatted(
+      resolution.name(), step, Printer.print(format, program)));
+  }
+}
@@ -0,0 +1,44 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.optimizer;
+
+/** Transformation of a program that keeps its meaning. */
+public sealed abstract class Pass permits Folding, Simplification,
+  Reassociation, Numbering, Elimination {
+  public static final Folding        FOLDING        = new Folding();
+  public static final Simplification SIMPLIFICATION = new Simplification();
+  public static final Numbering      NUMBERING      = new Numbering();
+  public static final Reassociation  REASSOCIATION  = new Reassociation();
+  public static final Elimination    ELIMINATION    = new Elimination();
+
+  public static final Pass[] PASSES = { FOLDING, SIMPLIFICATION,
+    REASSOCIATION, NUMBERING, ELIMINATION };
+
+  public static Pass of(String name) {
+    for (var pass : PASSES) {
+      if (pass.name.equals(name)) {
+        return pass;
+      }
+    }
+    return null;
+  }
+
+  public final String name;
+
+  protected Pass(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Runs the pass. Floating-point operations are treated as associative if
+   * relaxed is true.
+   */
+  abstract Program run(Program program, boolean relaxed,
+    Statistics statistics);
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
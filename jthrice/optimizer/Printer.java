@@ -0,0 +1,87 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.optimizer;
+
+import java.util.*;
+
+/** Writes programs in readable forms for debugging the passes. */
+public final class Printer {
+  public static final String[] FORMATS = { "text", "dot" };
+
+  public static String print(String format, Program program) {
+    return format.equals("dot") ? Printer.dot(program) : Printer.text(program);
+  }
+
+  /** Lists the operations like `%3: i4 = add %1, 7;`. */
+  public static String text(Program program) {
+    var names  = Printer.name(program);
+    var buffer = new StringBuilder();
+    for (var operation : program.operations) {
+      buffer.append("%s: %s = %s".formatted(names.get(operation),
+        operation.type, operation.opcode));
+      var separator = " ";
+      for (var operand : operation.operands) {
+        buffer.append(separator).append(Printer.operand(names, operand));
+        separator = ", ";
+      }
+      buffer.append(';').append(System.lineSeparator());
+    }
+    for (var binding : program.bindings) {
+      buffer.append("%s: %s = %s;".formatted(binding.name, binding.value.type,
+        Printer.operand(names, binding.value)))
+        .append(System.lineSeparator());
+    }
+    return buffer.toString();
+  }
+
+  /** Draws the operations and the bindings as a Graphviz graph. */
+  public static String dot(Program program) {
+    var names  = Printer.name(program);
+    var buffer = new StringBuilder("digraph program {");
+    buffer.append(System.lineSeparator());
+    for (var operation : program.operations) {
+      var node = names.get(operation).substring(1);
+      buffer.append("  v%s [label=\"%%%s: %s %s\"];".formatted(node, node,
+        operation.type, operation.opcode)).append(System.lineSeparator());
+      for (var operand : operation.operands) {
+        buffer.append("  %s -> v%s;".formatted(Printer.node(names, operand),
+          node)).append(System.lineSeparator());
+      }
+    }
+    for (var binding : program.bindings) {
+      buffer.append("  \"%s\" [shape=box];".formatted(binding.name))
+        .append(System.lineSeparator());
+      buffer.append("  %s -> \"%s\";".formatted(
+        Printer.node(names, binding.value), binding.name))
+        .append(System.lineSeparator());
+    }
+    return buffer.append('}').append(System.lineSeparator()).toString();
+  }
+
+  private static Map<Operation, String> name(Program program) {
+    var names = new IdentityHashMap<Operation, String>();
+    for (var operation : program.operations) {
+      names.put(operation, "%" + names.size());
+    }
+    return names;
+  }
+
+  private static String operand(Map<Operation, String> names, Value value) {
+    return switch (value) {
+      case Constant constant -> constant.toString();
+      case Operation operation -> names.get(operation);
+    };
+  }
+
+  private static String node(Map<Operation, String> names, Value value) {
+    return switch (value) {
+      case Constant constant -> "\"%s: %s\"".formatted(constant.type,
+        constant);
+      case Operation operation -> "v" + names.get(operation).substring(1);
+    };
+  }
+
+  private Printer() {
+  }
+}
@@ -0,0 +1,30 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.optimizer;
+
+import java.util.*;
+
+/**
+ * Operations of a file in an order where every operation comes after its
+ * operands, and the variables that are bound to them. Constants are not
+ * listed; they are used directly as operands.
+ */
+public final class Program {
+  static Program of(List<Operation> operations, List<Binding> bindings) {
+    return new Program(operations, bindings);
+  }
+
+  public final List<Operation> operations;
+  public final List<Binding>   bindings;
+
+  private Program(List<Operation> operations, List<Binding> bindings) {
+    this.operations = operations;
+    this.bindings   = bindings;
+  }
+
+  @Override
+  public String toString() {
+    return Printer.text(this);
+  }
+}
@@ -0,0 +1,119 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.optimizer;
+
+import java.util.*;
+
+import jthrice.analyzer.*;
+
+/**
+ * Turns the chains of additions or multiplications into balanced trees. The
+ * parser builds `a+b+c+d` as `((a+b)+c)+d`, where every addition waits for
+ * the previous one; as `(a+b)+(c+d)` the first two are independent. Integers
+ * wrap, so their order does not matter; floating-point numbers are only
+ * reordered when it is allowed.
+ */
+public final class Reassociation extends Pass {
+  Reassociation() {
+    super("reassociation");
+  }
+
+  @Override
+  Program run(Program program, boolean relaxed, Statistics statistics) {
+    var uses = new IdentityHashMap<Operation, Integer>();
+    for (var operation : program.operations) {
+      for (var operand : operation.operands) {
+        if (operand instanceof Operation used) {
+          uses.merge(used, 1, Integer::sum);
+        }
+      }
+    }
+    for (var binding : program.bindings) {
+      if (binding.value instanceof Operation used) {
+        uses.merge(used, 1, Integer::sum);
+      }
+    }
+
+    // Operations that are only used by the same operation in a chain are
+    // inside the chain, and the depth is the longest path to them.
+    var inside = Collections.newSetFromMap(
+      new IdentityHashMap<Operation, Boolean>());
+    var depths = new IdentityHashMap<Operation, Integer>();
+    for (var operation : program.operations) {
+      if (!Reassociation.associative(operation, relaxed)) {
+        continue;
+      }
+      var depth = 1;
+      for (var operand : operation.operands) {
+        if (operand instanceof Operation link
+          && link.opcode == operation.opcode && link.type == operation.type
+          && uses.get(link) == 1) {
+          inside.add(link);
+          depth = Math.max(depth, depths.get(link) + 1);
+        }
+      }
+      depths.put(operation, depth);
+    }
+
+    var rewrite = Rewrite.of(program);
+    for (var operation : program.operations) {
+      if (inside.contains(operation)) {
+        continue;
+      }
+      if (depths.getOrDefault(operation, 1) == 1) {
+        rewrite.put(operation, rewrite.operands(operation));
+        continue;
+      }
+      var leaves = Reassociation.flatten(rewrite, inside, operation);
+      if (Reassociation.depth(leaves.size()) < depths.get(operation)) {
+        statistics.count("rebalanced");
+      }
+      while (leaves.size() > 1) {
+        var level = new ArrayList<Value>((leaves.size() + 1) / 2);
+        for (var i = 0; i + 1 < leaves.size(); i += 2) {
+          level.add(rewrite.add(Operation.of(operation.opcode, operation.type,
+            leaves.get(i), leaves.get(i + 1))));
+        }
+        if (leaves.size() % 2 == 1) {
+          level.add(leaves.get(leaves.size() - 1));
+        }
+        leaves = level;
+      }
+      rewrite.put(operation, leaves.get(0));
+    }
+    return rewrite.program();
+  }
+
+  /** Operands of the chain from left to right, without recursion. */
+  private static List<Value> flatten(Rewrite rewrite, Set<Operation> inside,
+    Operation root) {
+    var leaves = new ArrayList<Value>();
+    var stack  = new ArrayDeque<Value>();
+    stack.push(root);
+    while (!stack.isEmpty()) {
+      var value = stack.pop();
+      if (value == root || value instanceof Operation operation
+        && inside.contains(operation)) {
+        var operands = ((Operation) value).operands;
+        for (var i = operands.size() - 1; i >= 0; i--) {
+          stack.push(operands.get(i));
+        }
+      } else {
+        leaves.add(rewrite.get(value));
+      }
+    }
+    return leaves;
+  }
+
+  /** Depth of the balanced tree with the leaves. */
+  private static int depth(int leaves) {
+    return 32 - Integer.numberOfLeadingZeros(leaves - 1);
+  }
+
+  private static boolean associative(Operation operation, boolean relaxed) {
+    return (operation.opcode == Opcode.ADD
+      || operation.opcode == Opcode.MULTIPLY)
+      && (relaxed || !(operation.type instanceof Scalar.Floating));
+  }
+}
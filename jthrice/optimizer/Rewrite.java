@@ -0,0 +1,77 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.optimizer;
+
+import java.util.*;
+
+/**
+ * Rebuilds a program while a pass visits its operations in order. Each
+ * operation is replaced by a value, and the later operations see the
+ * replacements of their operands.
+ */
+final class Rewrite {
+  static Rewrite of(Program program) {
+    return new Rewrite(program, new IdentityHashMap<>(), new ArrayList<>(),
+      Collections.newSetFromMap(new IdentityHashMap<>()));
+  }
+
+  private final Program               program;
+  private final Map<Operation, Value> replacements;
+  private final List<Operation>       operations;
+  private final Set<Operation>        added;
+
+  private Rewrite(Program program, Map<Operation, Value> replacements,
+    List<Operation> operations, Set<Operation> added) {
+    this.program      = program;
+    this.replacements = replacements;
+    this.operations   = operations;
+    this.added        = added;
+  }
+
+  /** Replacement of the value, which is itself if it was not replaced. */
+  Value get(Value value) {
+    if (value instanceof Operation operation) {
+      return replacements.getOrDefault(operation, operation);
+    }
+    return value;
+  }
+
+  /** Operation with the replacements of its operands. */
+  Operation operands(Operation operation) {
+    var operands = new ArrayList<Value>(operation.operands.size());
+    var changed  = false;
+    for (var operand : operation.operands) {
+      var replacement = get(operand);
+      changed |= replacement != operand;
+      operands.add(replacement);
+    }
+    if (!changed) {
+      return operation;
+    }
+    return Operation.of(operation.opcode, operation.type, operands);
+  }
+
+  /** Adds a new operation that the replacements are made of. */
+  Operation add(Operation operation) {
+    if (added.add(operation)) {
+      operations.add(operation);
+    }
+    return operation;
+  }
+
+  void put(Operation operation, Value replacement) {
+    replacements.put(operation, replacement);
+    if (replacement instanceof Operation added) {
+      add(added);
+    }
+  }
+
+  Program program() {
+    var bindings = new ArrayList<Binding>(program.bindings.size());
+    for (var binding : program.bindings) {
+      bindings.add(Binding.of(binding.name, get(binding.value)));
+    }
+    return Program.of(operations, bindings);
+  }
+}
@@ -0,0 +1,156 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.optimizer;
+
+import java.math.*;
+import java.util.*;
+import java.util.function.*;
+
+import jthrice.analyzer.*;
+
+/**
+ * Replaces the operations with cheaper ones using algebraic identities. The
+ * identities that do not hold for floating-point numbers, like `x+0` for
+ * `x=-0.0` or `x*0` for `x=NaN`, are only used for integers.
+ */
+public final class Simplification extends Pass {
+  /** Named rewrite that gives null when it does not apply. */
+  private static final class Rule {
+    final String                     name;
+    final Function<Operation, Value> rewrite;
+
+    Rule(String name, Function<Operation, Value> rewrite) {
+      this.name    = name;
+      this.rewrite = rewrite;
+    }
+  }
+
+  private static final List<Rule> RULES = List.of(
+    new Rule("double-negation", operation -> {
+      if (operation.opcode == Opcode.NEGATE
+        && operation.operands.get(0) instanceof Operation operand
+        && operand.opcode == Opcode.NEGATE) {
+        return operand.operands.get(0);
+      }
+      return null;
+    }), new Rule("multiplication-by-one", operation -> {
+      if (operation.opcode == Opcode.MULTIPLY) {
+        return Simplification.other(operation, 1);
+      }
+      return null;
+    }), new Rule("multiplication-by-zero", operation -> {
+      if (operation.opcode == Opcode.MULTIPLY
+        && Simplification.integer(operation)
+        && Simplification.other(operation, 0) != null) {
+        return Constant.of(operation.type, BigDecimal.ZERO);
+      }
+      return null;
+    }), new Rule("addition-of-zero", operation -> {
+      if (operation.opcode == Opcode.ADD && Simplification.integer(operation)) {
+        return Simplification.other(operation, 0);
+      }
+      return null;
+    }), new Rule("subtraction-of-zero", operation -> {
+      if (operation.opcode == Opcode.SUBTRACT
+        && Simplification.is(operation.operands.get(1), 0)) {
+        return operation.operands.get(0);
+      }
+      return null;
+    }), new Rule("subtraction-from-itself", operation -> {
+      if (operation.opcode == Opcode.SUBTRACT
+        && Simplification.integer(operation)
+        && operation.operands.get(0) instanceof Operation operand
+        && operand == operation.operands.get(1)) {
+        return Constant.of(operation.type, BigDecimal.ZERO);
+      }
+      return null;
+    }), new Rule("division-by-one", operation -> {
+      if (operation.opcode == Opcode.DIVIDE
+        && Simplification.is(operation.operands.get(1), 1)) {
+        return operation.operands.get(0);
+      }
+      return null;
+    }), new Rule("division-to-shift", operation -> {
+      var power = Simplification.power(operation, Opcode.DIVIDE);
+      if (power < 1) {
+        return null;
+      }
+      return Operation.of(Opcode.SHIFT, operation.type,
+        operation.operands.get(0),
+        Constant.of(operation.type, BigDecimal.valueOf(power)));
+    }), new Rule("reminder-to-mask", operation -> {
+      var power = Simplification.power(operation, Opcode.REMINDER);
+      if (power < 0) {
+        return null;
+      }
+      return Operation.of(Opcode.AND, operation.type,
+        operation.operands.get(0), Constant.of(operation.type,
+          new BigDecimal(BigInteger.ONE.shiftLeft(power)
+            .subtract(BigInteger.ONE))));
+    }));
+
+  Simplification() {
+    super("simplification");
+  }
+
+  @Override
+  Program run(Program program, boolean relaxed, Statistics statistics) {
+    var rewrite = Rewrite.of(program);
+    for (var operation : program.operations) {
+      var replaced    = rewrite.operands(operation);
+      var replacement = (Value) replaced;
+      for (var rule : RULES) {
+        var result = rule.rewrite.apply(replaced);
+        if (result != null) {
+          replacement = result;
+          statistics.count(rule.name);
+          break;
+        }
+      }
+      rewrite.put(operation, replacement);
+    }
+    return rewrite.program();
+  }
+
+  /** Operand that is not the constant, if the other one is. */
+  private static Value other(Operation operation, long constant) {
+    var first  = operation.operands.get(0);
+    var second = operation.operands.get(1);
+    if (Simplification.is(second, constant)) {
+      return first;
+    }
+    if (Simplification.is(first, constant)) {
+      return second;
+    }
+    return null;
+  }
+
+  private static boolean is(Value value, long constant) {
+    return value instanceof Constant c
+      && c.value.compareTo(BigDecimal.valueOf(constant)) == 0;
+  }
+
+  private static boolean integer(Operation operation) {
+    return !(operation.type instanceof Scalar.Floating);
+  }
+
+  /**
+   * Base two logarithm of the divisor if the operation is an unsigned one
+   * with the opcode and a divisor that is a power of two, or -1 otherwise.
+   */
+  private static int power(Operation operation, Opcode opcode) {
+    if (operation.opcode != opcode
+      || !(operation.type instanceof Scalar.Unsigned)
+      || !(operation.operands.get(1) instanceof Constant divisor)
+      || divisor.value.signum() <= 0) {
+      return -1;
+    }
+    var integer = divisor.value.toBigInteger();
+    if (divisor.value.compareTo(new BigDecimal(integer)) != 0
+      || integer.bitCount() != 1) {
+      return -1;
+    }
+    return integer.getLowestSetBit();
+  }
+}
@@ -0,0 +1,30 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.optimizer;
+
+import java.util.*;
+
+/** Number of times each kind of change was made by a pass. */
+public final class Statistics {
+  static Statistics of() {
+    return new Statistics(new LinkedHashMap<>());
+  }
+
+  public final Map<String, Long> counts;
+
+  private Statistics(Map<String, Long> counts) {
+    this.counts = counts;
+  }
+
+  void count(String change) {
+    counts.merge(change, 1L, Long::sum);
+  }
+
+  @Override
+  public String toString() {
+    var buffer = new StringJoiner(", ");
+    counts.forEach((change, count) -> buffer.add(change + ": " + count));
+    return buffer.toString();
+  }
+}
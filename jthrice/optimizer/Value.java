@@ -0,0 +1,15 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.optimizer;
+
+import jthrice.analyzer.*;
+
+/** Result of a computation in the static single assignment form. */
+public sealed abstract class Value permits Constant, Operation {
+  public final Scalar type;
+
+  protected Value(Scalar type) {
+    this.type = type;
+  }
+}
@@ -4,19 +4,22 @@ import jthrice.launcher.*;
 import jthrice.lexer.*;
 
 public final class Definition extends Statement {
-  static Definition of(Identifier name, Expression type, Expression value) {
-    return new Definition(Portion.of(name.portion, value.portion), name, type,
-      value);
+  static Definition of(Identifier name, Tree tree, int type, int value) {
+    return new Definition(Portion.of(name.portion, tree.portion(value)), name,
+      tree, type, value);
   }
 
   public final Identifier name;
-  public final Expression type;
-  public final Expression value;
+  /** Tree that has the type and the value. */
+  public final Tree       tree;
+  public final int        type;
+  public final int        value;
 
-  private Definition(Portion portion, Identifier name, Expression type,
-    Expression value) {
+  private Definition(Portion portion, Identifier name, Tree tree, int type,
+    int value) {
     super(portion);
     this.name  = name;
+    this.tree  = tree;
     this.type  = type;
     this.value = value;
   }
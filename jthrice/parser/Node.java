@@ -5,7 +5,7 @@ package jthrice.parser;
 
 import jthrice.launcher.*;
 
-public sealed abstract class Node permits Root, Statement, Expression {
+public sealed abstract class Node permits Root, Statement {
   public final Portion portion;
 
   protected Node(Portion portion) {
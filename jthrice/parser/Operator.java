@@ -3,9 +3,14 @@
 
 package jthrice.parser;
 
+import java.util.*;
+
 import jthrice.lexer.*;
 
 public sealed abstract class Operator permits NullaryOperator, PrenaryOperator, PostaryOperator, CirnaryOperator, BinaryOperator, VariaryOperator {
+  /** Every operator at its index, which trees keep instead of it. */
+  private static final List<Operator> OPERATORS = new ArrayList<>();
+
   public static final NullaryOperator DECIMAL    = NullaryOperator
     .of(Decimal.class);
   public static final NullaryOperator IDENTIFIER = NullaryOperator
@@ -69,4 +74,15 @@ public sealed abstract class Operator permits NullaryOperator, PrenaryOperator,
   static Operator get(int precedence, int index) {
     return ORDER[precedence][index];
   }
+
+  static Operator of(int index) {
+    return OPERATORS.get(index);
+  }
+
+  final int index;
+
+  Operator() {
+    index = OPERATORS.size();
+    OPERATORS.add(this);
+  }
 }
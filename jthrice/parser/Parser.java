@@ -10,23 +10,29 @@ import jthrice.lexer.*;
 
 public final class Parser {
   public static Root parse(Resolution resolution, List<Lexeme> lex) {
-    var parser = new Parser(resolution, new ArrayList<>(), lex, 0, null);
+    var parser = new Parser(resolution, new ArrayList<>(), lex, Tree.of(lex),
+      0, null);
     return parser.parse();
   }
 
   private final Resolution      resolution;
   private final List<Statement> statements;
   private final List<Lexeme>    lex;
+  private final Tree            tree;
 
-  private int        index;
-  private Portion    unexpected;
-  private Expression expression;
+  private int     index;
+  private Portion unexpected;
+  /** Node of the parsed expression, or -1 if there is none. */
+  private int     expression = -1;
+  /** Operator that is waiting for its operand to be parsed. */
+  private Frame   pending;
 
   private Parser(Resolution resolution, List<Statement> statements,
-    List<Lexeme> lex, int index, Portion unexpected) {
+    List<Lexeme> lex, Tree tree, int index, Portion unexpected) {
     this.resolution = resolution;
     this.statements = statements;
     this.lex        = lex;
+    this.tree       = tree;
     this.index      = index;
     this.unexpected = unexpected;
   }
@@ -49,6 +55,7 @@ public final class Parser {
       resolution.error("PARSER", "There is no EOF token!");
       return null;
     }
+    Metrics.PARSED.add(statements.size());
     return Root.of(statements, eof);
   }
 
@@ -68,12 +75,19 @@ public final class Parser {
 
   private void skip(Class<? extends Lexeme> type) {
     var start = ++index;
+    if (start >= lex.size() - 1) {
+      // Only the EOF is left, which must stay for the end of the parse.
+      index = lex.size() - 1;
+      return;
+    }
     while (has() && !type.isInstance(get())) {
       index++;
     }
     resolution.info("PARSER", portion(start),
       "This portion is skipped because of the previous error.");
-    index++;
+    if (has()) {
+      index++;
+    }
   }
 
   private Portion portion(int start) {
@@ -85,12 +99,12 @@ public final class Parser {
   }
 
   private boolean hasExpression() {
-    return expression != null;
+    return expression != -1;
   }
 
-  private Expression getExpression() {
+  private int getExpression() {
     var result = expression;
-    expression = null;
+    expression = -1;
     return result;
   }
 
@@ -136,7 +150,7 @@ public final class Parser {
     var type = getExpression();
 
     if (!has()) {
-      resolution.error("PARSER", type.portion,
+      resolution.error("PARSER", tree.portion(type),
         "There is no `=` after the type in the definition of `%s`!"
           .formatted(name));
       return true;
@@ -171,7 +185,7 @@ public final class Parser {
     var value = getExpression();
 
     if (!has()) {
-      resolution.error("PARSER", value.portion,
+      resolution.error("PARSER", tree.portion(value),
         "There is no `;` after the value in the definition of `%s`!"
           .formatted(name));
       return true;
@@ -185,7 +199,7 @@ public final class Parser {
     }
     index++;
 
-    statements.add(Definition.of(name, type, value));
+    statements.add(Definition.of(name, tree, type, value));
     return true;
   }
 
@@ -198,21 +212,124 @@ public final class Parser {
     }
   }
 
+  /**
+   * Parses an expression with operators that have at least the precedence.
+   * Operands are parsed by pushing frames to an explicit stack instead of
+   * recursing, so the nesting depth is only limited by the heap.
+   */
   private boolean parseExpression(int precedence) {
+    var frames = new ArrayDeque<Frame>();
+    frames.push(new Level(precedence));
     var parsed = false;
-    overall: for (var i = precedence; i < Operator.precedences(); i++) {
-      for (var j = 0; j < Operator.length(i); j++) {
-        if (parseOperator(i, j)) {
-          parsed = true;
-          if (!hasExpression()) {
-            break overall;
-          }
-          i = precedence - 1;
-          continue overall;
+    while (true) {
+      var frame = frames.peek();
+      var next  = frame.resume(parsed);
+      if (next != null) {
+        frames.push(next);
+        parsed = false;
+        continue;
+      }
+      frames.pop();
+      parsed = frame.parsed;
+      if (frames.isEmpty()) {
+        return parsed;
+      }
+    }
+  }
+
+  /** Parsing that waits for the operands it pushes to the stack. */
+  private abstract class Frame {
+    boolean parsed;
+
+    /**
+     * Continues parsing after the last pushed frame returned whether it
+     * parsed anything. Gives the next frame to push, or null if it finished.
+     */
+    abstract Frame resume(boolean operand);
+  }
+
+  /** Tries the operators from the precedence to the primary ones. */
+  private final class Level extends Frame {
+    private final int precedence;
+
+    private int     i;
+    private int     j;
+    private boolean waiting;
+
+    Level(int precedence) {
+      this.precedence = precedence;
+      i               = precedence;
+    }
+
+    @Override
+    Frame resume(boolean operand) {
+      if (waiting) {
+        waiting = false;
+        if (!restart()) {
+          return null;
+        }
+      }
+      while (i < Operator.precedences()) {
+        if (j == Operator.length(i)) {
+          i++;
+          j = 0;
+          continue;
+        }
+        if (!parseOperator(i, j)) {
+          j++;
+          continue;
+        }
+        if (pending != null) {
+          var next = pending;
+          pending = null;
+          waiting = true;
+          return next;
+        }
+        if (!restart()) {
+          return null;
         }
       }
+      return null;
+    }
+
+    /** Starts again from the precedence if there is an expression to use. */
+    private boolean restart() {
+      parsed = true;
+      if (!hasExpression()) {
+        return false;
+      }
+      i = precedence;
+      j = 0;
+      return true;
+    }
+  }
+
+  /** Operator that continues after parsing an operand at a precedence. */
+  private abstract class Operand extends Frame {
+    private final int precedence;
+
+    private boolean started;
+
+    Operand(int precedence) {
+      this.precedence = precedence;
+      parsed          = true;
+    }
+
+    @Override
+    Frame resume(boolean operand) {
+      if (!started) {
+        started = true;
+        return new Level(precedence);
+      }
+      return finish(operand);
+    }
+
+    /** Gives the frame for another operand, or null if it finished. */
+    abstract Frame finish(boolean operand);
+
+    Frame operand(int precedence) {
+      return new Level(precedence);
     }
-    return parsed;
   }
 
   private boolean parseOperator(int precedence, int inlevel) {
@@ -230,7 +347,7 @@ public final class Parser {
     if (hasExpression() || !nullary.operator(get())) {
       return false;
     }
-    expression = NullaryExpression.of(nullary, consume());
+    expression = tree.nullary(nullary, index++);
     return true;
   }
 
@@ -238,6 +355,7 @@ public final class Parser {
     if (hasExpression() || !prenary.operator(get())) {
       return false;
     }
+    var token    = index;
     var operator = consume();
 
     if (!has()) {
@@ -247,17 +365,23 @@ public final class Parser {
       return true;
     }
     var start = index;
-    if (!parseExpression(precedence)) {
-      resolution.error("PARSER", portion(start),
-        "Expected an operand after the `%s` in the prenary operation!"
-          .formatted(operator));
-      return true;
-    }
-    if (!hasExpression()) {
-      return true;
-    }
+    pending = new Operand(precedence) {
+      @Override
+      Frame finish(boolean operand) {
+        if (!operand) {
+          resolution.error("PARSER", portion(start),
+            "Expected an operand after the `%s` in the prenary operation!"
+              .formatted(operator));
+          return null;
+        }
+        if (!hasExpression()) {
+          return null;
+        }
 
-    expression = PrenaryExpression.of(prenary, operator, getExpression());
+        expression = tree.prenary(prenary, token, getExpression());
+        return null;
+      }
+    };
     return true;
   }
 
@@ -266,7 +390,7 @@ public final class Parser {
       return false;
     }
 
-    expression = PostaryExpression.of(postary, getExpression(), consume());
+    expression = tree.postary(postary, getExpression(), index++);
     return true;
   }
 
@@ -274,7 +398,8 @@ public final class Parser {
     if (hasExpression() || !cirnary.left(get())) {
       return false;
     }
-    var left = consume();
+    var opening = index;
+    var left    = consume();
 
     if (!has()) {
       resolution.error("PARSER", left.portion,
@@ -283,36 +408,42 @@ public final class Parser {
       return true;
     }
     var start = index;
-    if (!parseExpression(0)) {
-      resolution.error("PARSER", portion(start),
-        "Expected an operand after the `%s` in the cirnary operation!"
-          .formatted(left));
-      return true;
-    }
-    if (!hasExpression()) {
-      return true;
-    }
+    pending = new Operand(0) {
+      @Override
+      Frame finish(boolean operand) {
+        if (!operand) {
+          resolution.error("PARSER", portion(start),
+            "Expected an operand after the `%s` in the cirnary operation!"
+              .formatted(left));
+          return null;
+        }
+        if (!hasExpression()) {
+          return null;
+        }
 
-    if (!has()) {
-      resolution.error("PARSER",
-        Portion.of(left.portion, getExpression().portion),
-        "There is no matching `%s` for the `%s` in the cirnary operation!"
-          .formatted(cirnary.right(), left));
-      resolution.info("PARSER", left.portion,
-        "Cirnary operator is opened here.");
-      return true;
-    }
-    if (!cirnary.right(get())) {
-      resolution.error("PARSER", get().portion,
-        "Expected a matching `%s` for the `%s` in the cirnary operation!"
-          .formatted(cirnary.right(), left));
-      resolution.info("PARSER", left.portion,
-        "Cirnary operator is opened here.");
-      return true;
-    }
+        if (!has()) {
+          resolution.error("PARSER",
+            Portion.of(left.portion, tree.portion(getExpression())),
+            "There is no matching `%s` for the `%s` in the cirnary operation!"
+              .formatted(cirnary.right(), left));
+          resolution.info("PARSER", left.portion,
+            "Cirnary operator is opened here.");
+          return null;
+        }
+        if (!cirnary.right(get())) {
+          resolution.error("PARSER", get().portion,
+            "Expected a matching `%s` for the `%s` in the cirnary operation!"
+              .formatted(cirnary.right(), left));
+          resolution.info("PARSER", left.portion,
+            "Cirnary operator is opened here.");
+          return null;
+        }
 
-    expression = CirnaryExpression.of(cirnary, left, getExpression(),
-      consume());
+        expression = tree.cirnary(cirnary, opening, getExpression(),
+          index++);
+        return null;
+      }
+    };
     return true;
   }
 
@@ -322,6 +453,7 @@ public final class Parser {
     }
 
     var left     = getExpression();
+    var token    = index;
     var operator = consume();
 
     if (!has()) {
@@ -331,17 +463,23 @@ public final class Parser {
       return true;
     }
     var start = index;
-    if (!parseExpression(precedence + 1)) {
-      resolution.error("PARSER", portion(start),
-        "Expected an operand after the `%s` in the binary operation!"
-          .formatted(operator));
-      return true;
-    }
-    if (!hasExpression()) {
-      return true;
-    }
+    pending = new Operand(precedence + 1) {
+      @Override
+      Frame finish(boolean operand) {
+        if (!operand) {
+          resolution.error("PARSER", portion(start),
+            "Expected an operand after the `%s` in the binary operation!"
+              .formatted(operator));
+          return null;
+        }
+        if (!hasExpression()) {
+          return null;
+        }
 
-    expression = BinaryExpression.of(binary, left, operator, getExpression());
+        expression = tree.binary(binary, left, token, getExpression());
+        return null;
+      }
+    };
     return true;
   }
 
@@ -350,13 +488,12 @@ public final class Parser {
       return false;
     }
 
-    var first     = getExpression();
-    var left      = consume();
-    var remaining = new ArrayList<Expression>();
-    var between   = new ArrayList<Lexeme>();
+    var first   = getExpression();
+    var opening = index;
+    var left    = consume();
 
     if (!has()) {
-      resolution.error("PARSER", Portion.of(first.portion, left.portion),
+      resolution.error("PARSER", Portion.of(tree.portion(first), left.portion),
         "There is no matching `%s` for the `%s` in the variary operation!"
           .formatted(variary.right(), left));
       resolution.info("PARSER", left.portion,
@@ -364,75 +501,80 @@ public final class Parser {
       return true;
     }
 
-    if (!parseExpression(0)) {
-      if (!variary.right(get())) {
-        resolution.error("PARSER", get().portion,
-          "Expected a matching `%s` for the `%s` in the variary operation!"
-            .formatted(variary.right(), left));
-        resolution.info("PARSER", left.portion,
-          "Variary operator is opened here.");
-        return true;
-      }
-
-      expression = VariaryExpression.of(variary, first, left, remaining,
-        between,
-        consume());
-      return true;
-    }
-    if (!hasExpression()) {
-      return true;
-    }
+    pending = new Operand(0) {
+      private int[]  remaining = new int[4];
+      private int    count;
+      /** Last operator between the operands, or null if there is none. */
+      private Lexeme between;
+
+      @Override
+      Frame finish(boolean operand) {
+        if (!operand) {
+          if (between != null) {
+            resolution.error("PARSER", between.portion,
+              "Expected an operand after the `%s` in the variary operation!"
+                .formatted(variary.between(), left));
+            return null;
+          }
+          if (!variary.right(get())) {
+            resolution.error("PARSER", get().portion,
+              "Expected a matching `%s` for the `%s` in the variary operation!"
+                .formatted(variary.right(), left));
+            resolution.info("PARSER", left.portion,
+              "Variary operator is opened here.");
+            return null;
+          }
 
-    remaining.add(getExpression());
+          expression = tree.variary(variary, first, opening, remaining, count,
+            index++);
+          return null;
+        }
+        if (!hasExpression()) {
+          return null;
+        }
 
-    while (true) {
-      if (!has()) {
-        resolution.error("PARSER",
-          Portion.of(first.portion,
-            remaining.get(remaining.size() - 1).portion),
-          "There is no matching `%s` for the `%s` or a `%s` with another operand, in the variary operation!"
-            .formatted(variary.right(), variary.between(), left));
-        resolution.info("PARSER", left.portion,
-          "Variary operator is opened here.");
-        return true;
-      }
-      if (variary.right(get())) {
-        break;
-      }
-      if (!variary.between(get())) {
-        resolution.error("PARSER",
-          Portion.of(first.portion,
-            remaining.get(remaining.size() - 1).portion),
-          "Expected a matching `%s` for the `%s` or a `%s` with another operand, in the variary operation!"
-            .formatted(variary.right(), variary.between(), left));
-        resolution.info("PARSER", left.portion,
-          "Variary operator is opened here.");
-        return true;
-      }
+        if (count == remaining.length) {
+          remaining = Arrays.copyOf(remaining, count * 2);
+        }
+        remaining[count++] = getExpression();
+
+        if (!has()) {
+          resolution.error("PARSER",
+            Portion.of(tree.portion(first),
+              tree.portion(remaining[count - 1])),
+            "There is no matching `%s` for the `%s` or a `%s` with another operand, in the variary operation!"
+              .formatted(variary.right(), variary.between(), left));
+          resolution.info("PARSER", left.portion,
+            "Variary operator is opened here.");
+          return null;
+        }
+        if (variary.right(get())) {
+          expression = tree.variary(variary, first, opening, remaining, count,
+            index++);
+          return null;
+        }
+        if (!variary.between(get())) {
+          resolution.error("PARSER",
+            Portion.of(tree.portion(first),
+              tree.portion(remaining[count - 1])),
+            "Expected a matching `%s` for the `%s` or a `%s` with another operand, in the variary operation!"
+              .formatted(variary.right(), variary.between(), left));
+          resolution.info("PARSER", left.portion,
+            "Variary operator is opened here.");
+          return null;
+        }
 
-      between.add(consume());
+        between = consume();
 
-      if (!has()) {
-        resolution.error("PARSER", between.get(between.size() - 1).portion,
-          "There is no operand after the `%s` in the variary operation!"
-            .formatted(variary.between(), left));
-        return true;
-      }
-      if (!parseExpression(0)) {
-        resolution.error("PARSER", between.get(between.size() - 1).portion,
-          "Expected an operand after the `%s` in the variary operation!"
-            .formatted(variary.between(), left));
-        return true;
-      }
-      if (!hasExpression()) {
-        return true;
+        if (!has()) {
+          resolution.error("PARSER", between.portion,
+            "There is no operand after the `%s` in the variary operation!"
+              .formatted(variary.between(), left));
+          return null;
+        }
+        return operand(0);
       }
-
-      remaining.add(getExpression());
-    }
-
-    expression = VariaryExpression.of(variary, first, left, remaining, between,
-      consume());
+    };
     return true;
   }
 }
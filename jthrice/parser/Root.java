@@ -6,6 +6,9 @@ import jthrice.launcher.*;
 import jthrice.lexer.*;
 
 public final class Root extends Node {
+  /** Kind of the files that store a root. */
+  public static final char KIND = 'R';
+
   static Root of(List<Statement> statements, EOF eof) {
     if (statements.size() == 0) {
       return new Root(eof.portion, statements);
@@ -14,8 +17,97 @@ public final class Root extends Node {
       statements.get(statements.size() - 1).portion), statements);
   }
 
+  /**
+   * Joins the statements of the roots, which can be of different sources, in
+   * order. There must be at least one root.
+   */
+  public static Root join(List<Root> roots) {
+    var statements = new ArrayList<Statement>();
+    for (var root : roots) {
+      statements.addAll(root.statements);
+    }
+    if (statements.isEmpty()) {
+      return new Root(roots.get(roots.size() - 1).portion, statements);
+    }
+    return new Root(Portion.of(statements.get(0).portion,
+      statements.get(statements.size() - 1).portion), statements);
+  }
+
+  /**
+   * Reads a root that was written from the source, or gives null if the
+   * source is not the same anymore.
+   */
+  public static Root read(Decoder decoder, Source source) {
+    if (decoder.unsigned() != source.length()
+      || decoder.signed() != source.hash()) {
+      return null;
+    }
+    var trees = new ArrayList<Tree>();
+    for (var i = decoder.unsigned(); i > 0; i--) {
+      trees.add(Tree.read(decoder, source));
+    }
+    var statements = new ArrayList<Statement>();
+    for (var i = decoder.unsigned(); i > 0; i--) {
+      var tree  = trees.get(decoder.unsigned());
+      var name  = (Identifier) tree.lexeme(decoder.unsigned());
+      var type  = decoder.unsigned();
+      var value = decoder.unsigned();
+      statements.add(Definition.of(name, tree, type, value));
+    }
+    if (statements.isEmpty()) {
+      var index = decoder.unsigned();
+      var eof   = Lexeme.of(Lexeme.kind(EOF.class),
+        Portion.of(source, index, index));
+      return Root.of(statements, (EOF) eof);
+    }
+    return Root.of(statements, null);
+  }
+
   public final List<Statement> statements;
 
+  /**
+   * Writes the statements with the trees they are in. Lexemes are written as
+   * their spans, so the root must be of a single source, which is needed to
+   * read it.
+   */
+  public void write(Encoder encoder) {
+    var source = portion.source();
+    encoder.unsigned(source.length());
+    encoder.signed(source.hash());
+    var trees = new IdentityHashMap<Tree, Integer>();
+    for (var statement : statements) {
+      switch (statement) {
+        case Definition definition -> {
+          if (definition.tree.source() != source) {
+            throw new IllegalArgumentException(
+              "Root is not of a single source!");
+          }
+          trees.putIfAbsent(definition.tree, trees.size());
+        }
+      }
+    }
+    var ordered = new Tree[trees.size()];
+    trees.forEach((tree, index) -> ordered[index] = tree);
+    encoder.unsigned(ordered.length);
+    for (var tree : ordered) {
+      tree.write(encoder);
+    }
+    encoder.unsigned(statements.size());
+    for (var statement : statements) {
+      switch (statement) {
+        case Definition definition -> {
+          encoder.unsigned(trees.get(definition.tree));
+          encoder.unsigned(definition.tree.find(definition.name));
+          encoder.unsigned(definition.type);
+          encoder.unsigned(definition.value);
+        }
+      }
+    }
+    if (statements.isEmpty()) {
+      encoder.unsigned(portion.first().index());
+    }
+  }
+
   private Root(Portion portion, List<Statement> statements) {
     super(portion);
     this.statements = statements;
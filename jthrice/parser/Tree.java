@@ -0,0 +1,246 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.parser;
+
+import java.util.*;
+
+import jthrice.launcher.*;
+import jthrice.lexer.*;
+
+/**
+ * Expressions of a parse, kept in arrays instead of as objects. A node is the
+ * index of its entries, which is given in the order the nodes are made, so
+ * the operands of a node come before it. Lexemes are kept by their index in
+ * the lex. Every node consumes at least one lexeme of its own, so the arrays
+ * are made large enough once and adding a node allocates nothing.
+ */
+public final class Tree {
+  static Tree of(List<Lexeme> lex) {
+    var capacity = lex.size();
+    return new Tree(lex, new int[capacity], new int[capacity],
+      new int[capacity], new int[capacity], new int[capacity + 1],
+      new int[capacity]);
+  }
+
+  private final List<Lexeme> lex;
+  /** Index of the operator of each node. */
+  private final int[]        operators;
+  /** First lexeme of each node. */
+  private final int[]        firsts;
+  /** Lexeme of the operator of each node, or its left one if it has two. */
+  private final int[]        tokens;
+  /** Last lexeme of each node, which is the right operator if it has one. */
+  private final int[]        lasts;
+  /** Start of the operands of each node, and then the end of the last. */
+  private final int[]        starts;
+  private final int[]        operands;
+  private int                size;
+
+  private Tree(List<Lexeme> lex, int[] operators, int[] firsts, int[] tokens,
+    int[] lasts, int[] starts, int[] operands) {
+    this.lex       = lex;
+    this.operators = operators;
+    this.firsts    = firsts;
+    this.tokens    = tokens;
+    this.lasts     = lasts;
+    this.starts    = starts;
+    this.operands  = operands;
+  }
+
+  /** Number of the nodes, including the ones that did not end up used. */
+  public int size() {
+    return size;
+  }
+
+  public Operator operator(int node) {
+    return Operator.of(operators[node]);
+  }
+
+  /** Operator lexeme of the node, which is the left one if it has two. */
+  public Lexeme token(int node) {
+    return lex.get(tokens[node]);
+  }
+
+  /** Right operator lexeme of a cirnary or variary node. */
+  public Lexeme right(int node) {
+    return lex.get(lasts[node]);
+  }
+
+  /** Lexeme between the operand at the index and the next one. */
+  public Lexeme between(int node, int index) {
+    return lex.get(lasts[operand(node, index)] + 1);
+  }
+
+  public int operands(int node) {
+    return starts[node + 1] - starts[node];
+  }
+
+  public int operand(int node, int index) {
+    return operands[starts[node] + index];
+  }
+
+  public Portion portion(int node) {
+    return Portion.of(lex.get(firsts[node]).portion,
+      lex.get(lasts[node]).portion);
+  }
+
+  /** Text of the node in the source. */
+  public String toString(int node) {
+    return portion(node).toString();
+  }
+
+  /** Number of the nodes under the node, including itself. */
+  public int count(int node) {
+    var count = 0;
+    var stack = new int[16];
+    var top   = 0;
+    stack[top++] = node;
+    while (top != 0) {
+      var popped = stack[--top];
+      count++;
+      for (var i = starts[popped]; i < starts[popped + 1]; i++) {
+        if (top == stack.length) {
+          stack = Arrays.copyOf(stack, top * 2);
+        }
+        stack[top++] = operands[i];
+      }
+    }
+    return count;
+  }
+
+  Lexeme lexeme(int index) {
+    return lex.get(index);
+  }
+
+  /** Source of the lexemes. */
+  Source source() {
+    return lex.get(lex.size() - 1).portion.source();
+  }
+
+  /** Index of the lexeme, which must be in the lex. */
+  int find(Lexeme lexeme) {
+    var start = lexeme.portion.first().index();
+    var low   = 0;
+    var high  = lex.size() - 1;
+    while (low < high) {
+      var middle = (low + high) >>> 1;
+      if (lex.get(middle).portion.first().index() < start) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    if (lex.get(low) != lexeme) {
+      throw new IllegalArgumentException("Lexeme is not of the tree!");
+    }
+    return low;
+  }
+
+  /**
+   * Writes the lexemes as the spans between them and their lengths, and the
+   * nodes with their lexemes and operands as distances from the previous
+   * ones, so that the numbers stay small.
+   */
+  void write(Encoder encoder) {
+    encoder.unsigned(lex.size());
+    var end = 0;
+    for (var lexeme : lex) {
+      var first = lexeme.portion.first().index();
+      var last  = lexeme.portion.last().index();
+      encoder.unsigned(Lexeme.kind(lexeme.getClass()));
+      encoder.unsigned(first - end);
+      encoder.unsigned(last - first);
+      end = last + 1;
+    }
+    encoder.unsigned(size);
+    for (var node = 0; node < size; node++) {
+      encoder.unsigned(operators[node]);
+      encoder.signed(firsts[node] - (node == 0 ? 0 : firsts[node - 1]));
+      encoder.unsigned(tokens[node] - firsts[node]);
+      encoder.unsigned(lasts[node] - tokens[node]);
+      encoder.unsigned(operands(node));
+      for (var i = starts[node]; i < starts[node + 1]; i++) {
+        encoder.unsigned(node - operands[i]);
+      }
+    }
+  }
+
+  /** Reads a tree that was written with lexemes of the source. */
+  static Tree read(Decoder decoder, Source source) {
+    var count = decoder.unsigned();
+    var lex   = new ArrayList<Lexeme>(count);
+    var end   = 0;
+    for (var i = 0; i < count; i++) {
+      var kind   = decoder.unsigned();
+      var first  = end + decoder.unsigned();
+      var last   = first + decoder.unsigned();
+      var lexeme = Lexeme.of(kind, Portion.of(source, first, last));
+      if (lexeme == null) {
+        throw new IllegalStateException("Unknown lexeme kind `%d`!"
+          .formatted(kind));
+      }
+      lex.add(lexeme);
+      end = last + 1;
+    }
+    var tree = Tree.of(lex);
+    tree.size = decoder.unsigned();
+    for (var node = 0; node < tree.size; node++) {
+      tree.operators[node] = decoder.unsigned();
+      tree.firsts[node]    = (node == 0 ? 0 : tree.firsts[node - 1])
+        + (int) decoder.signed();
+      tree.tokens[node]    = tree.firsts[node] + decoder.unsigned();
+      tree.lasts[node]     = tree.tokens[node] + decoder.unsigned();
+      tree.starts[node + 1] = tree.starts[node] + decoder.unsigned();
+      for (var i = tree.starts[node]; i < tree.starts[node + 1]; i++) {
+        tree.operands[i] = node - decoder.unsigned();
+      }
+    }
+    return tree;
+  }
+
+  int nullary(NullaryOperator operator, int token) {
+    return add(operator, token, token, token, 0);
+  }
+
+  int prenary(PrenaryOperator operator, int token, int operand) {
+    operands[starts[size]] = operand;
+    return add(operator, token, token, lasts[operand], 1);
+  }
+
+  int postary(PostaryOperator operator, int operand, int token) {
+    operands[starts[size]] = operand;
+    return add(operator, firsts[operand], token, token, 1);
+  }
+
+  int cirnary(CirnaryOperator operator, int left, int operand, int right) {
+    operands[starts[size]] = operand;
+    return add(operator, left, left, right, 1);
+  }
+
+  int binary(BinaryOperator operator, int left, int token, int right) {
+    operands[starts[size]]     = left;
+    operands[starts[size] + 1] = right;
+    return add(operator, firsts[left], token, lasts[right], 2);
+  }
+
+  /** Operands are the first one, and then the given count of the rest. */
+  int variary(VariaryOperator operator, int first, int left, int[] remaining,
+    int count, int right) {
+    operands[starts[size]] = first;
+    System.arraycopy(remaining, 0, operands, starts[size] + 1, count);
+    return add(operator, firsts[first], left, right, count + 1);
+  }
+
+  /** Adds the node after the given number of its operands were written. */
+  private int add(Operator operator, int first, int token, int last,
+    int count) {
+    var node = size++;
+    operators[node] = operator.index;
+    firsts[node]    = first;
+    tokens[node]    = token;
+    lasts[node]     = last;
+    starts[size]    = starts[node] + count;
+    return node;
+  }
+}
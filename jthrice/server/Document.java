@@ -0,0 +1,255 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.server;
+
+import java.util.*;
+
+import jthrice.analyzer.*;
+import jthrice.launcher.*;
+import jthrice.lexer.*;
+import jthrice.parser.*;
+
+/**
+ * Text of an open file, kept as chunks that end after each semicolon. No
+ * token contains a semicolon, so lexing and parsing a chunk on its own gives
+ * the same definition as lexing and parsing the whole file. An edit only
+ * lexes and parses again the chunks it touches. Positions in a chunk are
+ * relative to the chunk, so the chunks after an edit stay as they are. The
+ * whole text is kept as an editable source, which finds the positions, and
+ * the chunks in spans, so an edit takes logarithmic time in their count.
+ */
+final class Document {
+  static Document of(String name, String text) {
+    text = text.replace("\r", "");
+    var document = new Document(name, Database.of(name),
+      EditableSource.of(name, text), Spans.of(chunk -> chunk.text.length(),
+        chunk -> chunk.lines,
+        chunk -> chunk.syntax.size() + chunk.semantic.size()),
+      new ArrayList<>());
+    document.chunks.replace(0, -1, document.split(text));
+    document.fill();
+    return document;
+  }
+
+  final String name;
+
+  /** Queries of the analysis, which are kept between the analyses. */
+  private final Database       database;
+  private final EditableSource text;
+  /** Chunks whose marks are their messages, so others are not visited. */
+  private final Spans<Chunk>   chunks;
+  /** Messages of the last analysis that are not about a chunk. */
+  private List<Diagnostic>     general;
+
+  private Document(String name, Database database, EditableSource text,
+    Spans<Chunk> chunks, List<Diagnostic> general) {
+    this.name     = name;
+    this.database = database;
+    this.text     = text;
+    this.chunks   = chunks;
+    this.general  = general;
+  }
+
+  /** Replaces the text between the positions, which start from 0. */
+  void edit(int firstLine, int firstCharacter, int lastLine,
+    int lastCharacter, String text) {
+    text = text.replace("\r", "");
+    var first  = this.text.index(firstLine + 1, firstCharacter + 1);
+    var last   = Math.max(first,
+      this.text.index(lastLine + 1, lastCharacter + 1));
+    var start  = chunks.at(first);
+    var end    = chunks.at(last);
+    var merged = new StringBuilder();
+    merged.append(chunks.get(start).text, 0, first - chunks.start(start))
+      .append(text)
+      .append(chunks.get(end).text.substring(last - chunks.start(end)));
+    // A chunk that lost its semicolon continues into the next one.
+    while (!Document.ends(merged) && end + 1 < chunks.size()) {
+      merged.append(chunks.get(++end).text);
+    }
+    chunks.replace(start, end, split(merged.toString()));
+    this.text.edit(first, last - first, text);
+    fill();
+  }
+
+  /**
+   * Analyzes the definitions of all the chunks together. Definitions of the
+   * chunks that were not parsed again keep their queries, so only the ones
+   * that changed or that read a changed one are analyzed again.
+   */
+  void analyze() {
+    var diagnostics = new ArrayList<Diagnostic>();
+    var resolution  = Resolution.of(name, diagnostics);
+    var roots       = new ArrayList<Root>();
+    var owners      = new IdentityHashMap<Source, Chunk>();
+    for (var chunk : chunks) {
+      chunk.semantic.clear();
+      chunk.published = null;
+      owners.put(chunk.source, chunk);
+      if (chunk.root != null) {
+        roots.add(chunk.root);
+      }
+    }
+    general = new ArrayList<>();
+    try {
+      if (!roots.isEmpty()) {
+        database.define(Root.join(roots));
+        database.solve(resolution);
+      }
+    } catch (RuntimeException e) {
+      Resolution.of(name, general).error("ANALYZER",
+        "Could not analyze! %s".formatted(e));
+    }
+    for (var diagnostic : diagnostics) {
+      var owner = diagnostic.portion == null ? null
+        : owners.get(diagnostic.portion.source());
+      if (owner == null) {
+        general.add(diagnostic);
+      } else {
+        owner.semantic.add(diagnostic);
+      }
+    }
+    chunks.measure();
+  }
+
+  /**
+   * Messages of the lexer, parser and last analysis in the protocol. Only
+   * the chunks with messages are visited, and a chunk that did not move
+   * gives the messages it gave before.
+   */
+  List<Object> diagnostics() {
+    var diagnostics = new ArrayList<Object>();
+    for (var diagnostic : general) {
+      diagnostics.add(Document.diagnostic(diagnostic, 0, 0));
+    }
+    for (var index : chunks.marked()) {
+      var start = chunks.start(index);
+      diagnostics.addAll(chunks.get(index).publish(text.line(start) - 1,
+        text.column(start) - 1));
+    }
+    return diagnostics;
+  }
+
+  /** Chunks of the text, which end after each semicolon. */
+  private List<Chunk> split(String text) {
+    var split = new ArrayList<Chunk>();
+    var start = 0;
+    for (var i = 0; i < text.length(); i++) {
+      if (text.charAt(i) == ';') {
+        split.add(Chunk.of(name, text.substring(start, i + 1)));
+        start = i + 1;
+      }
+    }
+    if (start < text.length()) {
+      split.add(Chunk.of(name, text.substring(start)));
+    }
+    return split;
+  }
+
+  /** Keeps an empty chunk in an empty document, so edits can find it. */
+  private void fill() {
+    if (chunks.size() == 0) {
+      chunks.replace(0, -1, List.of(Chunk.of(name, "")));
+    }
+  }
+
+  private static boolean ends(CharSequence text) {
+    return text.length() != 0 && text.charAt(text.length() - 1) == ';';
+  }
+
+  /** Message in the protocol, for a chunk that starts at the position. */
+  private static Map<String, Object> diagnostic(Diagnostic diagnostic,
+    int line, int column) {
+    var portion = diagnostic.portion;
+    var start   = Document.position(portion == null ? null : portion.first(),
+      line, column, 0);
+    var end     = Document.position(portion == null ? null : portion.last(),
+      line, column, 1);
+    var result  = new LinkedHashMap<String, Object>();
+    result.put("range", Map.of("start", start, "end", end));
+    result.put("severity", switch (diagnostic.severity) {
+      case "error" -> 1;
+      case "warning" -> 2;
+      default -> 3;
+    });
+    result.put("source", "jthrice");
+    result.put("message", "[%s] %s".formatted(diagnostic.author,
+      diagnostic.message));
+    return result;
+  }
+
+  /** Position in the document of a location in the chunk at the line. */
+  private static Map<String, Object> position(Location location, int line,
+    int column, int after) {
+    if (location == null) {
+      return Map.of("line", line, "character", column);
+    }
+    return Map.of("line", line + location.line() - 1, "character",
+      (location.line() == 1 ? column : 0) + location.column() - 1 + after);
+  }
+
+  /** Text up to and including a semicolon, and what it lexed and parsed to. */
+  private static final class Chunk {
+    static Chunk of(String name, String text) {
+      var syntax     = new ArrayList<Diagnostic>();
+      var resolution = Resolution.of(name, syntax);
+      var source     = Source.of(name, text);
+      Root root      = null;
+      try {
+        root = Parser.parse(resolution, Lexer.lex(resolution, source));
+      } catch (RuntimeException e) {
+        resolution.error("PARSER", "Could not parse! %s".formatted(e));
+      }
+      var lines = 0;
+      for (var i = 0; i < text.length(); i++) {
+        if (text.charAt(i) == '\n') {
+          lines++;
+        }
+      }
+      return new Chunk(text, source, root, syntax, new ArrayList<>(), lines);
+    }
+
+    final String           text;
+    final Source           source;
+    /** Definitions in the chunk, or null if it could not be parsed. */
+    final Root             root;
+    final List<Diagnostic> syntax;
+    final List<Diagnostic> semantic;
+    /** Number of line ends in the text. */
+    final int              lines;
+    /** Messages in the protocol, or null if they are not made yet. */
+    List<Object>           published;
+    /** Position of the chunk when its messages were made. */
+    int                    publishedLine;
+    int                    publishedColumn;
+
+    private Chunk(String text, Source source, Root root,
+      List<Diagnostic> syntax, List<Diagnostic> semantic, int lines) {
+      this.text     = text;
+      this.source   = source;
+      this.root     = root;
+      this.syntax   = syntax;
+      this.semantic = semantic;
+      this.lines    = lines;
+    }
+
+    /** Messages in the protocol, for the chunk at the position. */
+    List<Object> publish(int line, int column) {
+      if (published != null && publishedLine == line
+        && publishedColumn == column) {
+        return published;
+      }
+      published = new ArrayList<>();
+      for (var diagnostic : syntax) {
+        published.add(Document.diagnostic(diagnostic, line, column));
+      }
+      for (var diagnostic : semantic) {
+        published.add(Document.diagnostic(diagnostic, line, column));
+      }
+      publishedLine   = line;
+      publishedColumn = column;
+      return published;
+    }
+  }
+}
@@ -0,0 +1,238 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.server;
+
+import java.util.*;
+
+/**
+ * Reads and writes the JSON of the protocol. Objects are maps, arrays are
+ * lists, numbers are longs or doubles, and null is null.
+ */
+final class Json {
+  static Object parse(String text) {
+    var json  = new Json(text, 0);
+    var value = json.value();
+    json.whitespace();
+    if (json.index != text.length()) {
+      throw json.error("There are characters after the value!");
+    }
+    return value;
+  }
+
+  static String write(Object value) {
+    var out = new StringBuilder();
+    Json.write(out, value);
+    return out.toString();
+  }
+
+  private static void write(StringBuilder out, Object value) {
+    switch (value) {
+      case null -> out.append("null");
+      case String string -> Json.string(out, string);
+      case Map<?, ?> map -> {
+        out.append('{');
+        var first = true;
+        for (var entry : map.entrySet()) {
+          if (!first) {
+            out.append(',');
+          }
+          first = false;
+          Json.string(out, entry.getKey().toString());
+          out.append(':');
+          Json.write(out, entry.getValue());
+        }
+        out.append('}');
+      }
+      case List<?> list -> {
+        out.append('[');
+        for (var i = 0; i < list.size(); i++) {
+          if (i != 0) {
+            out.append(',');
+          }
+          Json.write(out, list.get(i));
+        }
+        out.append(']');
+      }
+      default -> out.append(value);
+    }
+  }
+
+  private static void string(StringBuilder out, String string) {
+    out.append('"');
+    for (var i = 0; i < string.length(); i++) {
+      var c = string.charAt(i);
+      switch (c) {
+        case '"' -> out.append("\\\"");
+        case '\\' -> out.append("\\\\");
+        case '\n' -> out.append("\\n");
+        case '\r' -> out.append("\\r");
+        case '\t' -> out.append("\\t");
+        default -> {
+          if (c < ' ') {
+            out.append("\\u%04x".formatted((int) c));
+          } else {
+            out.append(c);
+          }
+        }
+      }
+    }
+    out.append('"');
+  }
+
+  private final String text;
+
+  private int index;
+
+  private Json(String text, int index) {
+    this.text  = text;
+    this.index = index;
+  }
+
+  private Object value() {
+    whitespace();
+    if (index == text.length()) {
+      throw error("There is no value!");
+    }
+    var c = text.charAt(index);
+    if (c == '{') {
+      return object();
+    }
+    if (c == '[') {
+      return array();
+    }
+    if (c == '"') {
+      return string();
+    }
+    if (text.startsWith("true", index)) {
+      index += 4;
+      return true;
+    }
+    if (text.startsWith("false", index)) {
+      index += 5;
+      return false;
+    }
+    if (text.startsWith("null", index)) {
+      index += 4;
+      return null;
+    }
+    return number();
+  }
+
+  private Map<String, Object> object() {
+    var object = new LinkedHashMap<String, Object>();
+    index++;
+    whitespace();
+    if (consume('}')) {
+      return object;
+    }
+    do {
+      whitespace();
+      var key = string();
+      whitespace();
+      expect(':');
+      object.put(key, value());
+      whitespace();
+    } while (consume(','));
+    expect('}');
+    return object;
+  }
+
+  private List<Object> array() {
+    var array = new ArrayList<Object>();
+    index++;
+    whitespace();
+    if (consume(']')) {
+      return array;
+    }
+    do {
+      array.add(value());
+      whitespace();
+    } while (consume(','));
+    expect(']');
+    return array;
+  }
+
+  private String string() {
+    expect('"');
+    var out = new StringBuilder();
+    while (index < text.length()) {
+      var c = text.charAt(index++);
+      if (c == '"') {
+        return out.toString();
+      }
+      if (c != '\\') {
+        out.append(c);
+        continue;
+      }
+      if (index == text.length()) {
+        break;
+      }
+      var escaped = text.charAt(index++);
+      switch (escaped) {
+        case 'b' -> out.append('\b');
+        case 'f' -> out.append('\f');
+        case 'n' -> out.append('\n');
+        case 'r' -> out.append('\r');
+        case 't' -> out.append('\t');
+        case 'u' -> {
+          if (index + 4 > text.length()) {
+            throw error("The escape is not complete!");
+          }
+          out.append((char) Integer.parseInt(
+            text.substring(index, index + 4), 16));
+          index += 4;
+        }
+        default -> out.append(escaped);
+      }
+    }
+    throw error("The string is not closed!");
+  }
+
+  private Object number() {
+    var start = index;
+    while (index < text.length() && "+-0123456789.eE".indexOf(
+      text.charAt(index)) != -1) {
+      index++;
+    }
+    var number = text.substring(start, index);
+    if (number.isEmpty()) {
+      throw error("There is no value!");
+    }
+    try {
+      if (number.contains(".") || number.contains("e")
+        || number.contains("E")) {
+        return Double.parseDouble(number);
+      }
+      return Long.parseLong(number);
+    } catch (NumberFormatException e) {
+      throw error("The number `%s` is invalid!".formatted(number));
+    }
+  }
+
+  private void whitespace() {
+    while (index < text.length() && " \t\r\n".indexOf(text.charAt(index))
+      != -1) {
+      index++;
+    }
+  }
+
+  private boolean consume(char c) {
+    if (index < text.length() && text.charAt(index) == c) {
+      index++;
+      return true;
+    }
+    return false;
+  }
+
+  private void expect(char c) {
+    if (!consume(c)) {
+      throw error("Expected `%c`!".formatted(c));
+    }
+  }
+
+  private IllegalArgumentException error(String message) {
+    return new IllegalArgumentException(
+      "%s At character %d.".formatted(message, index));
+  }
+}
@@ -0,0 +1,210 @@
+// SPDX-FileCopyrightText: 2022 Cem Geçgel <gecgelcem@outlook.com>
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package jthrice.server;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import jthrice.launcher.*;
+
+/**
+ * Language server that speaks the protocol over the standard streams. Edits
+ * are applied to the documents in memory, which report the messages of the
+ * lexer and the parser after each edit. Analysis needs all the definitions,
+ * so it runs when a document is opened or saved; its messages move with the
+ * definitions they are about until then.
+ */
+public final class Server {
+  private final InputStream           in;
+  private final OutputStream          out;
+  private final Map<String, Document> documents;
+
+  private boolean shutdown;
+
+  private Server(InputStream in, OutputStream out,
+    Map<String, Document> documents) {
+    this.in        = in;
+    this.out       = out;
+    this.documents = documents;
+  }
+
+  /** Handles the messages until the client exits or closes the input. */
+  private void serve() throws IOException {
+    for (var message = read(); message != null; message = read()) {
+      if (!handle(message)) {
+        return;
+      }
+    }
+  }
+
+  /** Handles the message, and gives whether to handle more. */
+  @SuppressWarnings("unchecked")
+  private boolean handle(Map<String, Object> message) throws IOException {
+    var id     = message.get("id");
+    var method = (String) message.get("method");
+    var params = (Map<String, Object>) message.get("params");
+    if (method == null) {
+      // Responses to requests of the server, which it does not send.
+      return true;
+    }
+    switch (method) {
+      case "initialize" -> respond(id, Map.of("capabilities",
+        Map.of("textDocumentSync",
+          Map.of("openClose", true, "change", 2, "save", true)),
+        "serverInfo", Map.of("name", "jthrice", "version", "0.0.1")));
+      case "shutdown" -> {
+        shutdown = true;
+        respond(id, null);
+      }
+      case "exit" -> {
+        return false;
+      }
+      case "textDocument/didOpen" -> {
+        var item     = (Map<String, Object>) params.get("textDocument");
+        var uri      = (String) item.get("uri");
+        var document = Document.of(Server.name(uri), (String) item.get("text"));
+        document.analyze();
+        documents.put(uri, document);
+        publish(uri, document);
+      }
+      case "textDocument/didChange" -> {
+        var uri      = Server.uri(params);
+        var document = documents.get(uri);
+        for (var change : (List<Map<String, Object>>) params
+          .get("contentChanges")) {
+          var text  = (String) change.get("text");
+          var range = (Map<String, Object>) change.get("range");
+          if (range == null || document == null) {
+            document = Document.of(Server.name(uri), text);
+            continue;
+          }
+          var start = (Map<String, Object>) range.get("start");
+          var end   = (Map<String, Object>) range.get("end");
+          document.edit(Server.number(start, "line"),
+            Server.number(start, "character"), Server.number(end, "line"),
+            Server.number(end, "character"), text);
+        }
+        documents.put(uri, document);
+        publish(uri, document);
+      }
+      case "textDocument/didSave" -> {
+        var uri      = Server.uri(params);
+        var document = documents.get(uri);
+        if (document != null) {
+          document.analyze();
+          publish(uri, document);
+        }
+      }
+      case "textDocument/didClose" -> {
+        var uri = Server.uri(params);
+        documents.remove(uri);
+        notify("textDocument/publishDiagnostics",
+          Map.of("uri", uri, "diagnostics", List.of()));
+      }
+      default -> {
+        if (id != null) {
+          var error = new LinkedHashMap<String, Object>();
+          error.put("code", shutdown ? -32600 : -32601);
+          error.put("message", "Unknown method `%s`!".formatted(method));
+          send(Map.of("jsonrpc", "2.0", "id", id, "error", error));
+        }
+      }
+    }
+    return true;
+  }
+
+  private void publish(String uri, Document document) throws IOException {
+    notify("textDocument/publishDiagnostics",
+      Map.of("uri", uri, "diagnostics", document.diagnostics()));
+  }
+
+  private void respond(Object id, Object result) throws IOException {
+    var message = new LinkedHashMap<String, Object>();
+    message.put("jsonrpc", "2.0");
+    message.put("id", id);
+    message.put("result", result);
+    send(message);
+  }
+
+  private void notify(String method, Object params) throws IOException {
+    send(Map.of("jsonrpc", "2.0", "method", method, "params", params));
+  }
+
+  private void send(Map<String, Object> message) throws IOException {
+    var body = Json.write(message).getBytes(StandardCharsets.UTF_8);
+    out.write("Content-Length: %d\r\n\r\n".formatted(body.length)
+      .getBytes(StandardCharsets.US_ASCII));
+    out.write(body);
+    out.flush();
+  }
+
+  /** Next message, or null if the input ended. */
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> read() throws IOException {
+    var length = -1;
+    for (var header = header(); header != null; header = header()) {
+      if (header.isEmpty()) {
+        if (length < 0) {
+          continue;
+        }
+        var body = in.readNBytes(length);
+        if (body.length < length) {
+          return null;
+        }
+        return (Map<String, Object>) Json
+          .parse(new String(body, StandardCharsets.UTF_8));
+      }
+      var colon = header.indexOf(':');
+      if (colon != -1 && header.substring(0, colon).strip()
+        .equalsIgnoreCase("Content-Length")) {
+        length = Integer.parseInt(header.substring(colon + 1).strip());
+      }
+    }
+    return null;
+  }
+
+  /** Header line without its end, or null if the input ended. */
+  private String header() throws IOException {
+    var line = new StringBuilder();
+    for (var c = in.read(); c != -1; c = in.read()) {
+      if (c == '\n') {
+        var length = line.length();
+        if (length != 0 && line.charAt(length - 1) == '\r') {
+          line.setLength(length - 1);
+        }
+        return line.toString();
+      }
+      line.append((char) c);
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static String uri(Map<String, Object> params) {
+    return (String) ((Map<String, Object>) params.get("textDocument"))
+      .get("uri");
+  }
+
+  private static int number(Map<String, Object> position, String key) {
+    return ((Number) position.get(key)).intValue();
+  }
+
+  /** Name of the file of the URI without the extension. */
+  private static String name(String uri) {
+    var path = URI.create(uri).getPath();
+    var name = path == null ? uri : path.substring(path.lastIndexOf('/') + 1);
+    var end  = name.lastIndexOf('.' + Source.EXTENSION);
+    return end == -1 ? name : name.substring(0, end);
+  }
+
+  public static void main(String[] arguments) throws IOException {
+    var out = System.out;
+    // Only messages may be written to the output.
+    System.setOut(System.err);
+    new Server(new BufferedInputStream(System.in), out, new HashMap<>())
+      .serve();
+  }
+}
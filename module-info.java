@@ -3,9 +3,15 @@
 
 /** Thrice Java compiler module. */
 module jthrice.compiler {
+  requires jdk.httpserver;
+  requires transitive jdk.jfr;
+  requires jdk.management;
+
   exports jthrice.analyzer;
   exports jthrice.generator;
   exports jthrice.launcher;
   exports jthrice.lexer;
+  exports jthrice.optimizer;
   exports jthrice.parser;
+  exports jthrice.server;
 }